@@ -0,0 +1,270 @@
+package core;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Software mixer for short sound effects. Every effect is decoded once into a shared mono
+ * PCM buffer; playing one just claims a voice, and a dedicated thread mixes all active
+ * voices into a single {@link SourceDataLine}. Overlapping plays of the same sound don't cut
+ * each other off, and only one output line is ever opened.
+ *
+ * The game thread only posts to a lock-free queue, so {@link #play} never blocks. When all
+ * voices are busy the one closest to finishing is stolen. Each voice has its own gain and
+ * an equal-power pan computed from the sound's position relative to the listener (the
+ * avatar), with a gentle falloff over distance.
+ *
+ * Without an audio device the mixer stays silent and every call is a cheap no-op.
+ */
+public final class AudioMixer {
+    /** A decoded effect. Immutable and safe to play on any number of voices at once. */
+    public static final class Sound {
+        private final float[] samples; // mono, at the mixer's rate, -1..1
+        private final String path;
+
+        private Sound(float[] samples, String path) {
+            this.samples = samples;
+            this.path = path;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        public double seconds() {
+            return samples.length / (double) SAMPLE_RATE;
+        }
+    }
+
+    private static final int SAMPLE_RATE = 44_100;
+    private static final int MAX_VOICES = 16;
+    private static final int BLOCK_FRAMES = 256;        // ~6 ms mixed per pass
+    private static final int LINE_BUFFER_FRAMES = 1024; // ~23 ms queued in the device
+    private static final double FALLOFF_TILES = 12.0;   // distance at which a sound is half as loud
+    private static final double PAN_TILES = 10.0;       // horizontal offset that pans fully to one side
+    private static final AudioFormat OUTPUT =
+            new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+
+    private record Request(Sound sound, float left, float right) { }
+
+    // Voice state; audio thread only
+    private final Sound[] voiceSound = new Sound[MAX_VOICES];
+    private final int[] voicePosition = new int[MAX_VOICES];
+    private final float[] voiceLeft = new float[MAX_VOICES];
+    private final float[] voiceRight = new float[MAX_VOICES];
+
+    private final ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+    private final SourceDataLine line;
+    private volatile boolean running;
+    private Thread thread;
+
+    private volatile double listenerX;
+    private volatile double listenerY;
+    private volatile long stolenVoices;
+
+    public AudioMixer() {
+        SourceDataLine opened = null;
+        try {
+            opened = AudioSystem.getSourceDataLine(OUTPUT);
+            opened.open(OUTPUT, LINE_BUFFER_FRAMES * OUTPUT.getFrameSize());
+            opened.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("[Audio] No audio output device available. Sound effects disabled.");
+            opened = null;
+        }
+        line = opened;
+        if (line != null) {
+            running = true;
+            thread = new Thread(this::run, "audio-mixer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+        }
+    }
+
+    /** Whether an output line is open; false means every play is silently dropped. */
+    public boolean enabled() {
+        return line != null;
+    }
+
+    /**
+     * Decode a WAV (or anything AudioSystem reads) into a shared buffer at the mixer's rate.
+     * Returns null when the file can't be read. Decoding works even without a device.
+     */
+    public static Sound load(String filepath) {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new File(filepath))) {
+            AudioFormat in = source.getFormat();
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, in.getSampleRate(), 16,
+                    in.getChannels(), in.getChannels() * 2, in.getSampleRate(), false);
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source)) {
+                byte[] bytes = decoded.readAllBytes();
+                float[] mono = downmix(bytes, in.getChannels());
+                return new Sound(resample(mono, in.getSampleRate()), filepath);
+            }
+        } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+            System.err.println("[Audio] Unable to load WAV: " + filepath);
+            return null;
+        }
+    }
+
+    /** Where sounds are heard from, in tile coordinates; usually the avatar. */
+    public void setListener(double x, double y) {
+        listenerX = x;
+        listenerY = y;
+    }
+
+    /** Play centered with no distance falloff, e.g. UI sounds or the avatar's own steps. */
+    public void play(Sound sound, float gain) {
+        if (line == null || sound == null) {
+            return;
+        }
+        float g = gain * 0.70710677f; // equal-power center
+        requests.offer(new Request(sound, g, g));
+    }
+
+    /** Play from a tile position, panned and attenuated relative to the listener. */
+    public void playAt(Sound sound, float gain, double x, double y) {
+        if (line == null || sound == null) {
+            return;
+        }
+        double dx = x - listenerX;
+        double dy = y - listenerY;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        double attenuation = FALLOFF_TILES / (FALLOFF_TILES + distance);
+        double pan = Math.max(-1.0, Math.min(1.0, dx / PAN_TILES)); // -1 left .. 1 right
+        double angle = (pan + 1.0) * Math.PI / 4.0;
+        float left = (float) (gain * attenuation * Math.cos(angle));
+        float right = (float) (gain * attenuation * Math.sin(angle));
+        requests.offer(new Request(sound, left, right));
+    }
+
+    /** Voices taken over from still-playing sounds so far, for diagnostics. */
+    public long stolenVoices() {
+        return stolenVoices;
+    }
+
+    /** Stop mixing and release the line. */
+    public void close() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(200L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        if (line != null) {
+            line.stop();
+            line.close();
+        }
+    }
+
+    private void run() {
+        float[] mix = new float[BLOCK_FRAMES * 2];
+        byte[] out = new byte[BLOCK_FRAMES * OUTPUT.getFrameSize()];
+        while (running) {
+            for (Request r = requests.poll(); r != null; r = requests.poll()) {
+                start(r);
+            }
+            mixBlock(mix);
+            for (int i = 0; i < mix.length; i++) {
+                float v = Math.max(-1f, Math.min(1f, mix[i]));
+                int s = (int) (v * 32767f);
+                out[i * 2] = (byte) s;
+                out[i * 2 + 1] = (byte) (s >> 8);
+            }
+            line.write(out, 0, out.length); // blocks only this thread, paced by the device
+        }
+    }
+
+    private void start(Request r) {
+        int slot = -1;
+        int leastRemaining = Integer.MAX_VALUE;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSound[v] == null) {
+                slot = v;
+                break;
+            }
+            int remaining = voiceSound[v].samples.length - voicePosition[v];
+            if (remaining < leastRemaining) {
+                leastRemaining = remaining;
+                slot = v;
+            }
+        }
+        if (voiceSound[slot] != null) {
+            stolenVoices += 1;
+        }
+        voiceSound[slot] = r.sound();
+        voicePosition[slot] = 0;
+        voiceLeft[slot] = r.left();
+        voiceRight[slot] = r.right();
+    }
+
+    private void mixBlock(float[] mix) {
+        Arrays.fill(mix, 0f);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            Sound sound = voiceSound[v];
+            if (sound == null) {
+                continue;
+            }
+            float[] samples = sound.samples;
+            int pos = voicePosition[v];
+            int frames = Math.min(BLOCK_FRAMES, samples.length - pos);
+            float left = voiceLeft[v];
+            float right = voiceRight[v];
+            for (int f = 0; f < frames; f++) {
+                float s = samples[pos + f];
+                mix[f * 2] += s * left;
+                mix[f * 2 + 1] += s * right;
+            }
+            pos += frames;
+            if (pos >= samples.length) {
+                voiceSound[v] = null;
+            } else {
+                voicePosition[v] = pos;
+            }
+        }
+    }
+
+    // 16-bit little-endian interleaved -> mono floats
+    private static float[] downmix(byte[] bytes, int channels) {
+        int frames = bytes.length / (2 * channels);
+        float[] mono = new float[frames];
+        for (int f = 0; f < frames; f++) {
+            float sum = 0f;
+            for (int c = 0; c < channels; c++) {
+                int i = (f * channels + c) * 2;
+                sum += (short) ((bytes[i] & 0xFF) | (bytes[i + 1] << 8)) / 32768f;
+            }
+            mono[f] = sum / channels;
+        }
+        return mono;
+    }
+
+    // Linear interpolation to the output rate; effects are short, so this runs once at load
+    private static float[] resample(float[] samples, float sourceRate) {
+        if (sourceRate == SAMPLE_RATE || samples.length == 0) {
+            return samples;
+        }
+        double step = sourceRate / SAMPLE_RATE;
+        int length = (int) Math.floor((samples.length - 1) / step) + 1;
+        float[] out = new float[length];
+        for (int i = 0; i < length; i++) {
+            double at = i * step;
+            int i0 = (int) at;
+            int i1 = Math.min(i0 + 1, samples.length - 1);
+            float t = (float) (at - i0);
+            out[i] = samples[i0] + (samples[i1] - samples[i0]) * t;
+        }
+        return out;
+    }
+}
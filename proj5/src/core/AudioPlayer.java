@@ -1,197 +1,72 @@
 package core;
 
-import javax.sound.sampled.*;
-import java.io.File;
-import java.io.IOException;
+import utils.AssetManager;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+/**
+ * Music is streamed by a {@link MusicPlayer}; short effects are decoded up front and played
+ * through a shared {@link AudioMixer}, so overlapping footsteps don't cut each other off.
+ * Every call just hands work to the audio threads and returns.
+ */
 public class AudioPlayer {
 
-    private Clip loopClip;
-    private final List<Clip> effectsClips = new ArrayList<>();
+    private static final float MUSIC_GAIN_DB = -15f;
+    private static final int STOP_FADE_MS = 300;
+
+    private final MusicPlayer music = new MusicPlayer(MUSIC_GAIN_DB);
+    private final AudioMixer effects = new AudioMixer();
+    private final List<AssetManager.Handle<AudioMixer.Sound>> effectSounds = new ArrayList<>();
     private final Random random = new Random();
+    private static final float EFFECT_GAIN = 0.18f; // about -15 dB, matching the music
 
     private long lastFootstepTime = 0;
     private static final long FOOTSTEP_COOLDOWN_MS = 240;
 
-    // ------------------------------------------------------
-    // Utility: Try to obtain a Clip safely
-    // ------------------------------------------------------
-    private Clip tryGetClip() {
-        try {
-            return AudioSystem.getClip();
-        } catch (LineUnavailableException | IllegalArgumentException e) {
-            System.err.println("[Audio] No audio output device available. Sound disabled.");
-            return null;
-        }
-    }
-
-    // ------------------------------------------------------
-    // Load a single WAV safely
-    // ------------------------------------------------------
-    private Clip loadClip(String filepath, float gainDb) {
-        try {
-            AudioInputStream audio = AudioSystem.getAudioInputStream(new File(filepath));
-            Clip clip = tryGetClip();
-            if (clip == null) return null;  // no device → silent mode
-
-            try {
-                clip.open(audio);
-            } catch (LineUnavailableException e) {
-                System.err.println("[Audio] Failed to open audio line: " + filepath);
-                return null;
-            }
-
-            setVolume(clip, gainDb);
-            return clip;
-
-        } catch (UnsupportedAudioFileException | IOException e) {
-            System.err.println("[Audio] Unable to load WAV: " + filepath);
-            return null;
-        }
-    }
-
-    // ------------------------------------------------------
-    // Set volume (if supported)
-    // ------------------------------------------------------
-    private void setVolume(Clip clip, float gainDb) {
-        if (clip != null && clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-            FloatControl volume = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            volume.setValue(gainDb);
-        }
-    }
-
     // ------------------------------------------------------
     // Public API
     // ------------------------------------------------------
 
+    /** Play a track once, replacing whatever music is on. */
     public void play(String filepath) {
-        try {
-            AudioInputStream audio = AudioSystem.getAudioInputStream(new File(filepath));
-            loopClip = tryGetClip();
-            if (loopClip == null) return;  // no device → silent mode
-
-            try {
-                loopClip.open(audio);
-            } catch (LineUnavailableException e) {
-                System.err.println("[Audio] Cannot open clip for: " + filepath);
-                return;
-            }
-
-            setVolume(loopClip, -15f);
-            loopClip.start();
-
-        } catch (Exception e) {
-            System.err.println("[Audio] Failed to play: " + filepath);
-        }
+        music.playOnce(filepath, 0, null);
     }
 
+    /** Loop a track, crossfading from the current one. */
     public void playLoop(String filepath) {
-        stopLoop();
-
-        try {
-            AudioInputStream audio = AudioSystem.getAudioInputStream(new File(filepath));
-            loopClip = tryGetClip();
-            if (loopClip == null) return;
-
-            try {
-                loopClip.open(audio);
-            } catch (LineUnavailableException e) {
-                System.err.println("[Audio] Cannot open loop clip: " + filepath);
-                return;
-            }
-
-            setVolume(loopClip, -15f);
-            loopClip.loop(Clip.LOOP_CONTINUOUSLY);
-            loopClip.start();
-
-        } catch (Exception e) {
-            System.err.println("[Audio] Failed to play loop: " + filepath);
-        }
+        music.playLoop(filepath);
     }
 
-    public void loadEffects(String... filepaths) {
+    /** Decode effects in the background; ones still loading are just skipped when played. */
+    public void loadEffects(AssetManager assets, String... filepaths) {
         for (String path : filepaths) {
-            Clip clip = loadClip(path, -15f);
-            if (clip != null) {
-                effectsClips.add(clip);
-            }
+            effectSounds.add(assets.load(path, AudioMixer::load));
         }
     }
 
+    /** The effects mixer, for positional sounds and setting the listener. */
+    public AudioMixer effects() {
+        return effects;
+    }
+
     public void playRandomEffect() {
         long now = System.currentTimeMillis();
         if (now - lastFootstepTime < FOOTSTEP_COOLDOWN_MS) return;
         lastFootstepTime = now;
 
-        if (effectsClips.isEmpty()) return;
-
-        Clip clip = effectsClips.get(random.nextInt(effectsClips.size()));
-        if (clip == null) return;
+        if (effectSounds.isEmpty()) return;
 
-        if (clip.isRunning()) {
-            clip.stop();
-        }
-        clip.setFramePosition(0);
-        clip.start();
+        effects.play(effectSounds.get(random.nextInt(effectSounds.size())).getNow(), EFFECT_GAIN);
     }
 
     public void stop() {
-        if (loopClip != null && loopClip.isRunning()) {
-            loopClip.stop();
-            loopClip.close();
-        }
-    }
-
-    private void stopLoop() {
-        if (loopClip != null && loopClip.isRunning()) {
-            loopClip.stop();
-        }
-        if (loopClip != null) {
-            loopClip.close();
-            loopClip = null;
-        }
+        music.stop(STOP_FADE_MS);
     }
 
+    /** Play a track once, then run onComplete if it wasn't stopped or replaced first. */
     public void playThenCallback(String filepath, Runnable onComplete) {
-        try {
-            AudioInputStream audio = AudioSystem.getAudioInputStream(new File(filepath));
-            loopClip = tryGetClip();
-            if (loopClip == null) return;
-
-            try {
-                loopClip.open(audio);
-            } catch (LineUnavailableException e) {
-                System.err.println("[Audio] Cannot open clip for callback: " + filepath);
-                return;
-            }
-
-            setVolume(loopClip, -15f);
-
-            loopClip.addLineListener(event -> {
-                if (event.getType() == LineEvent.Type.STOP) {
-                    loopClip.close();
-                    if (onComplete != null) onComplete.run();
-                }
-            });
-
-            loopClip.start();
-
-        } catch (Exception e) {
-            System.err.println("[Audio] Failed to playThenCallback: " + filepath);
-        }
-    }
-
-    // Optional cleanup if needed (not required)
-    private void closeEffects() {
-        for (Clip clip : effectsClips) {
-            if (clip != null && clip.isOpen()) {
-                clip.stop();
-                clip.close();
-            }
-        }
-        effectsClips.clear();
+        music.playOnce(filepath, 0, onComplete);
     }
 }
@@ -0,0 +1,136 @@
+package core;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Writes saves off the game thread without ever leaving a half-written file behind.
+ *
+ * The game thread only captures a {@link GameSnapshot} (an immutable copy of the
+ * dynamic state, small compared to the world). Encoding and disk I/O happen on a
+ * single background worker: the snapshot goes to a temp file, is fsynced, the current
+ * save is rotated into numbered backups, then the temp file is atomically moved over
+ * the save. A crash at any point leaves either the old or the new save intact.
+ */
+public class AutosaveService {
+    private final Path target;
+    private final int generations;
+    private final long intervalMs;
+    private final ExecutorService worker;
+    private final AtomicBoolean inFlight = new AtomicBoolean(false);
+    private long lastSaveMs = -1L;
+
+    /**
+     * @param target      save file path, e.g. save.bin
+     * @param generations how many older saves to keep as save.bin.1 .. save.bin.N (0 = none)
+     * @param intervalMs  minimum time between periodic autosaves
+     */
+    public AutosaveService(Path target, int generations, long intervalMs) {
+        this.target = target;
+        this.generations = Math.max(0, generations);
+        this.intervalMs = Math.max(1L, intervalMs);
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Called once per tick from the game loop. Captures and queues a save when the
+     * interval has passed; skips while the previous save is still being written so
+     * slow disks never queue up work or stall the frame.
+     */
+    public void maybeAutosave(long nowMs, Supplier<GameSnapshot> capture) {
+        if (lastSaveMs < 0) {
+            lastSaveMs = nowMs; // don't save on the very first tick of a session
+            return;
+        }
+        if (nowMs - lastSaveMs < intervalMs || inFlight.get()) {
+            return;
+        }
+        lastSaveMs = nowMs;
+        saveAsync(capture.get());
+    }
+
+    public Future<?> saveAsync(GameSnapshot snapshot) {
+        inFlight.set(true);
+        return worker.submit(() -> {
+            try {
+                writeAtomically(snapshot);
+            } catch (IOException e) {
+                System.err.println("[Save] Autosave failed: " + e.getMessage());
+            } finally {
+                inFlight.set(false);
+            }
+        });
+    }
+
+    /** Save and block until it's on disk (quit path). Runs after any save already queued. */
+    public void saveNow(GameSnapshot snapshot) {
+        try {
+            saveAsync(snapshot).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("[Save] Save failed: " + e.getCause());
+        }
+    }
+
+    /** The save followed by its rotated backups, newest first - load tries them in order. */
+    public List<Path> candidates() {
+        List<Path> paths = new ArrayList<>(generations + 1);
+        paths.add(target);
+        for (int i = 1; i <= generations; i++) {
+            paths.add(generation(i));
+        }
+        return paths;
+    }
+
+    private Path generation(int n) {
+        return target.resolveSibling(target.getFileName() + "." + n);
+    }
+
+    private void writeAtomically(GameSnapshot snapshot) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotCodec.writeFully(channel, SnapshotCodec.encode(snapshot, true));
+            channel.force(true);
+        }
+        rotate();
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // save.bin.(N-1) -> save.bin.N ... save.bin -> save.bin.1 (copied, so save.bin never disappears)
+    private void rotate() throws IOException {
+        if (generations == 0 || !Files.exists(target)) {
+            return;
+        }
+        for (int i = generations - 1; i >= 1; i--) {
+            Path from = generation(i);
+            if (Files.exists(from)) {
+                Files.move(from, generation(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.copy(target, generation(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -18,6 +18,10 @@ public class Avatar extends Entity {
         return lives;
     }
 
+    public void setLives(int lives) {
+        this.lives = Math.max(0, lives);
+    }
+
     public void setSpawnPoint(Position spawnPoint) {
         this.spawnPoint = spawnPoint;
     }
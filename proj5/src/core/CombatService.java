@@ -1,28 +1,24 @@
 package core;
 
+import core.ecs.ComponentStore;
+
 import java.util.ArrayDeque;
-import java.util.HashSet;
 import java.util.Queue;
-import java.util.Set;
 
 /**
  * Centralized dispatcher for combat events. Entities enqueue damage and the
  * service resolves armor, invulnerability frames, and death callbacks each tick.
+ *
+ * Invulnerability timers are stepped by walking the session's packed health store.
  */
 public class CombatService {
     public record DamageEvent(Entity target, Entity source, int amount) { }
 
     private final Queue<DamageEvent> damageEvents = new ArrayDeque<>();
-    private final Set<Entity> trackedEntities = new HashSet<>();
+    private final ComponentStore<HealthComponent> healths;
 
-    public void register(Entity entity) {
-        if (entity != null) {
-            trackedEntities.add(entity);
-        }
-    }
-
-    public void unregister(Entity entity) {
-        trackedEntities.remove(entity);
+    public CombatService(Entities entities) {
+        this.healths = entities.healths();
     }
 
     public void queueDamage(Entity target, Entity source, int amount) {
@@ -36,10 +32,8 @@ public class CombatService {
      * Resolve invulnerability timers and apply any queued damage for this frame.
      */
     public void tick() {
-        for (Entity entity : trackedEntities) {
-            if (entity.health() != null) {
-                entity.health().tickInvulnerability();
-            }
+        for (int i = 0; i < healths.size(); i++) {
+            healths.valueAt(i).tickInvulnerability();
         }
 
         int eventsToProcess = damageEvents.size();
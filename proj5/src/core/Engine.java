@@ -1,20 +1,34 @@
 package core;
 import edu.princeton.cs.algs4.StdDraw;
+import tileengine.AnimationClip;
+import tileengine.AnimationClock;
+import tileengine.AssetWatcher;
+import tileengine.DirectionalClips;
 import tileengine.Tileset;
 import tileengine.TERenderer;
 import tileengine.TETile;
+import tileengine.TextureAtlas;
+import utils.AssetManager;
 import utils.FileUtils;
+import utils.RngService;
+import utils.SplitMixRandom;
+import utils.TripleBuffer;
 
 import java.awt.*;
-import java.awt.event.KeyEvent;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
+import core.ecs.Resource;
+import core.ecs.SystemSchedule;
+import core.NPC.Corpse;
 import core.NPC.Npc;
 import core.NPC.NpcManager;
 import core.items.DroppedItem;
@@ -22,36 +36,95 @@ import core.items.Inventory;
 import core.items.Item;
 import core.items.ItemRegistry;
 import core.items.ItemStack;
+import core.items.LootTable;
+import core.items.LootTables;
+import render.HeadlessSceneRenderer;
+import render.Java2DSceneRenderer;
+import render.Scene;
+import render.StdDrawWindow;
 
 
 
 public class Engine {
-    Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
+    // headless for fast replays - there is no screen to size against
+    Dimension screenSize = GraphicsEnvironment.isHeadless()
+            ? new Dimension(0, 0) : Toolkit.getDefaultToolkit().getScreenSize();
     int screenWidth = (int) screenSize.getWidth();
     int screenHeight = (int) screenSize.getHeight();
 
     public static final int WORLD_WIDTH = World.WIDTH;
     public static final int WORLD_HEIGHT = World.HEIGHT;
 
-    private final int VIEW_WIDTH = 50; //screenWidth / 24;
-    private final int VIEW_HEIGHT = 35;//screenHeight / 24;
+    // Starting view size in screen tiles; the window can be resized from there
+    private static final int DEFAULT_VIEW_WIDTH = 50;
+    private static final int DEFAULT_VIEW_HEIGHT = 35;
+    private int viewWidth = DEFAULT_VIEW_WIDTH;
+    private int viewHeight = DEFAULT_VIEW_HEIGHT;
+    // Zoom requested from the keyboard (sim/input thread), applied by whoever renders
+    private volatile int zoomLevel = TERenderer.DEFAULT_ZOOM_LEVEL;
     public static final int HUD_HEIGHT = 3;
-    public static final String SAVE_FILE = "save.txt";
+    public static final String SAVE_FILE = "save.bin";
+    /** Old keystroke-history saves; still loadable (by replay) when no binary save exists. */
+    public static final String LEGACY_SAVE_FILE = "save.txt";
+    private static final long AUTOSAVE_INTERVAL_MS = 60_000L;
+    private static final int AUTOSAVE_GENERATIONS = 3;
+    /** Input log of the most recent session, rewritten on quit. Play back with --replay. */
+    public static final String RECORDING_FILE = "last_session.rec";
+    private static final int REPLAY_CHECKPOINT_TICKS = 600;
+    private static final int REPLAY_SEEK_TICKS = 333; // ~10 s per ',' / '.' press
+    /** Rolls of the "world" loot table scattered over a new world (see assets/loot.txt). */
+    private static final int WORLD_DROP_COUNT = 6;
 
     private final TERenderer ter = new TERenderer();
+    private final AutosaveService autosave =
+            new AutosaveService(Path.of(SAVE_FILE), AUTOSAVE_GENERATIONS, AUTOSAVE_INTERVAL_MS);
     private TETile[][] world;
+    private WorldMetadata worldMeta;
     private Avatar avatar;
-    private TETile avatarSprite;
-    private StringBuilder history;
     private NpcManager npcManager;
     private CombatService combatService;
+    private Entities entities; // entity ids and packed components for the current session
+
+    // -Dbyow.parallelSystems=false runs every system on the simulation thread
+    private static final boolean PARALLEL_SYSTEMS =
+            Boolean.parseBoolean(System.getProperty("byow.parallelSystems", "true"))
+                    && Runtime.getRuntime().availableProcessors() > 1;
+    private TickInput tickInput = TickInput.NONE; // what this tick's systems see
+    private int footstepCues;                      // steps taken this tick; the audio system plays them
+    // The per-tick simulation in logical order. Systems whose declared state doesn't overlap
+    // share a stage (movement with the overlay toggle, AI with audio) and run concurrently
+    // once they cost enough to be worth it. The declarations must cover everything a
+    // system's code can reach, or the stages are wrong.
+    private final SystemSchedule systems = new SystemSchedule(PARALLEL_SYSTEMS
+            ? new ForkJoinPool(Math.min(3, Runtime.getRuntime().availableProcessors() - 1)) : null)
+            .add("movement", t -> handleMovement(tickInput),
+                    EnumSet.of(Resource.INPUT, Resource.WORLD, Resource.NPCS),
+                    EnumSet.of(Resource.AVATAR, Resource.AUDIO, Resource.INVENTORY, Resource.DROPS,
+                            Resource.HUD, Resource.LIGHTING))
+            .add("overlay", t -> updateInventoryToggle(tickInput),
+                    EnumSet.of(Resource.INPUT), EnumSet.of(Resource.OVERLAY))
+            // behaviors get the avatar entity itself, so its health counts as read too
+            .add("ai", t -> npcManager.tick(avatar, t),
+                    EnumSet.of(Resource.WORLD, Resource.AVATAR, Resource.HEALTH),
+                    EnumSet.of(Resource.NPCS, Resource.DAMAGE))
+            .add("audio", t -> playFootsteps(),
+                    EnumSet.of(Resource.AVATAR), EnumSet.of(Resource.AUDIO))
+            .add("combat", t -> combatService.tick(),
+                    EnumSet.of(Resource.DAMAGE),
+                    EnumSet.of(Resource.DAMAGE, Resource.HEALTH, Resource.AVATAR, Resource.NPCS,
+                            Resource.INVENTORY, Resource.DROPS, Resource.HUD));
+    private RngService rngs;
+    private long seed;
 
     // Inventory system stuffs
     private Inventory inventory;
+    private final List<String> inventoryLines = new ArrayList<>(); // see inventoryLines()
+    private Inventory linesInventory;
+    private int linesVersion;
     private List<DroppedItem> droppedItems;
     private boolean inventoryVisible;
     private String hudMessage;
-    private boolean tabDown = false;
+    private long lastRenderKey = Long.MIN_VALUE; // renderKey of the frame on screen (render thread)
 
 
 
@@ -60,20 +133,51 @@ public class Engine {
     private static final double SURGE_LIGHT_RADIUS = 30.0;
     private static final long LIGHT_SURGE_DURATION_MS = 10_000L;
     private static final long LIGHT_FADE_DURATION_MS = 3_000L;
-    private long lightSurgeStartMs = -1L;
+    private long lightSurgeStartTick = -1L;
+    private double lightRadius = BASE_LIGHT_RADIUS;
 
 
     // AUDIO STUFF
     private final AudioPlayer music = new AudioPlayer();
 
 
+    // Simulation clock - gameplay timing counts ticks, never wall time, so replays match
+    /** Nominal tick length, used to express tick counts as the ms durations above. */
+    private static final long SIM_TICK_MS = 30L;
+    private long tick = 0L;
+    private int previousKeys = 0;     // TickInput key mask from the previous tick (edge detection)
+    private boolean awaitingQuit = false;
+    private InputRecorder recorder;
+    private final InputSystem keyboard = new InputSystem();
+    private boolean replaying = false;
+    private boolean effectsEnabled = true;
+
+    // Render rate: -Dbyow.fps=30|60|120|uncapped. Simulation always runs at SIM_TICK_MS.
+    private static final int TARGET_FPS =
+            FramePacer.parseTargetFps(System.getProperty("byow.fps"), 60);
+    private final FramePacer pacer = new FramePacer(SIM_TICK_MS, TARGET_FPS);
+    // -Dbyow.stats=true prints timing summaries (to stderr) on quit and after replays
+    private static final boolean STATS = Boolean.getBoolean("byow.stats");
+
+    // Live play renders on its own thread from copies of the state published after each
+    // batch of ticks; -Dbyow.renderThread=false draws inline on the simulation thread instead.
+    private static final boolean RENDER_THREAD =
+            Boolean.parseBoolean(System.getProperty("byow.renderThread", "true"));
+    private final TripleBuffer<RenderState> frames = new TripleBuffer<>(RenderState::new);
+    private final FramePacer renderPacer = new FramePacer(SIM_TICK_MS, TARGET_FPS);
+    private final RenderThread renderThread = new RenderThread(frames, this::renderWithHud, renderPacer);
+    /** Wall clock to render time between published ticks (live rendering only). */
+    private final AnimationClock animationClock = new AnimationClock(SIM_TICK_MS);
+
+
     // Movement variables
-    private boolean wDown, aDown, sDown, dDown;
     private char currentDirection = 0;
-    private boolean shiftDown = false;
 
 
     private static final String HEALTHBAR_IMAGE_PATH = "assets/ui/healthbar_early_concept.png";
+    private static final TETile HEALTHBAR = new TETile(' ', Color.WHITE, new Color(0, 0, 0, 0),
+            "health bar", HEALTHBAR_IMAGE_PATH, -1);
+    private static final Color INVENTORY_DIM = new Color(0, 0, 0, 200);
     private static final double HEALTHBAR_WIDTH_TILES = 8.0;
     private static final double HEALTHBAR_HEIGHT_TILES = 2.0;
     private static final double HUD_MARGIN_TILES = 0.5;
@@ -89,27 +193,53 @@ public class Engine {
 
     //Animation variables
     private int ticksSinceLastMove = 0;
-    private int animFrame = 0; // Assign anim frame to cycle through character pngs
-    private int MAX_FRAMES = 8;
     private static final int WALK_REPEAT_TICKS = 2;
     private static final int RUN_REPEAT_TICKS = 1;   // ~2× faster
 
-    private static final int AVATAR_ANIM_MS = 40;    // frame change cadence while moving
-    private long lastAnimUpdateMs = 0L;
+    // walk cycle frame every 40 ms, expressed in ticks so it follows the shared clock
+    private static final DirectionalClips AVATAR_WALK = DirectionalClips.of(Tileset.AVATAR_UP_FRAMES,
+            Tileset.AVATAR_DOWN_FRAMES, Tileset.AVATAR_LEFT_FRAMES, Tileset.AVATAR_RIGHT_FRAMES,
+            40.0 / SIM_TICK_MS);
     private char lastFacing = 's';
 
 
-    private static final long NPC_SEED_SALT = 0x9e3779b97f4a7c15L;
-
-
     // Added smoothing to animations
     private double drawX =0, drawY = 0;
     private double avatarOffsetX = 0.0;
     private double avatarOffsetY = 0.0;
     private static final double SMOOTH_SPEED = 0.40;
 
+    // No display (e.g. fast replays / benchmarks): render into a counting backend instead
+    private final boolean headless = GraphicsEnvironment.isHeadless();
+    private final HeadlessSceneRenderer headlessRenderer = headless ? new HeadlessSceneRenderer() : null;
+
+    /** -Dbyow.renderer=stddraw falls back to drawing through StdDraw's API. */
+    private static final String RENDERER = System.getProperty("byow.renderer", "java2d");
+    /** Packed asset pages, rebuilt whenever a file under assets/ changes. */
+    private static final String ATLAS_CACHE_DIR = ".atlas";
+    /** Loads assets in the background; repeat loads share one handle, failed ones are retried. */
+    private final AssetManager assets = new AssetManager();
+    private AssetManager.Handle<TextureAtlas> atlasHandle; // null when the backend doesn't use one
+    /** -Dbyow.hotReload=true picks up edited PNGs while the game runs (java2d only). */
+    private static final boolean HOT_RELOAD = Boolean.getBoolean("byow.hotReload");
+
     public Engine() {
-        music.loadEffects(
+        if (headless) {
+            ter.setBackend(headlessRenderer);
+        } else if (RENDERER.equalsIgnoreCase("java2d")) {
+            // reading (or packing) the atlas is most of startup; the menu doesn't need it,
+            // so it loads in the background and is swapped in when done
+            Java2DSceneRenderer java2d = new Java2DSceneRenderer();
+            ter.setBackend(java2d);
+            atlasHandle = assets.load(ATLAS_CACHE_DIR,
+                    dir -> TextureAtlas.loadOrBuild(Path.of("assets"), Path.of(dir)));
+            atlasHandle.whenReady(java2d::setAtlas);
+            if (HOT_RELOAD) {
+                atlasHandle.whenReady(atlas ->
+                        AssetWatcher.start(Path.of("assets"), Path.of(ATLAS_CACHE_DIR), atlas, java2d::setAtlas));
+            }
+        }
+        music.loadEffects(assets,
                 "assets/audio/step1.wav",
                 "assets/audio/step2.wav",
                 "assets/audio/step3.wav",
@@ -125,11 +255,12 @@ public class Engine {
                 "assets/audio/step13.wav"
         );
         reset();
-        ter.configureView(WORLD_WIDTH, WORLD_HEIGHT, VIEW_WIDTH, VIEW_HEIGHT, HUD_HEIGHT);
+        ter.configureView(WORLD_WIDTH, WORLD_HEIGHT, viewWidth, viewHeight, HUD_HEIGHT);
     }
 
     public void interactWithKeyboard() {
-        ter.initialize(VIEW_WIDTH, VIEW_HEIGHT + HUD_HEIGHT);
+        ter.initialize(viewWidth, viewHeight + HUD_HEIGHT);
+        keyboard.attach(StdDrawWindow.frame());
         showMainMenu();
         char selection = waitForMenuSelection();
         if (selection == 'q') {
@@ -139,10 +270,14 @@ public class Engine {
             if (world == null) {
                 music.stop();
                 promptSeedAndStart();
+                startRecording(false);
+            } else {
+                startRecording(true);
             }
             gameLoop();
         } else {
             promptSeedAndStart();
+            startRecording(false);
             gameLoop();
         }
     }
@@ -150,16 +285,23 @@ public class Engine {
 
     public TETile[][] interactWithInputString(String input) {
         reset();
-        applyCommands(input.toLowerCase(Locale.ROOT), true, false);
+        applyCommands(input.toLowerCase(Locale.ROOT), false);
         return worldWithAvatar();
     }
 
     private void reset() {
         world = null;
+        worldMeta = null;
+        rngs = null;
+        resetSession();
+    }
+
+    // Everything that lives on top of the generated world
+    private void resetSession() {
         avatar = null;
-        history = new StringBuilder();
         npcManager = null;
-        combatService = new CombatService();
+        entities = new Entities();
+        combatService = new CombatService(entities);
 
         //Reset inventory
         inventory = new Inventory(16);
@@ -168,61 +310,80 @@ public class Engine {
         hudMessage = "";
         resetLighting();
 
+        tick = 0L;
+        previousKeys = 0;
+        currentDirection = 0;
+        ticksSinceLastMove = 0;
+        awaitingQuit = false;
     }
 
     private void resetLighting() {
-        lightSurgeStartMs = -1L;
-        ter.setLightRadius(BASE_LIGHT_RADIUS);
+        lightSurgeStartTick = -1L;
+        lightRadius = BASE_LIGHT_RADIUS;
     }
 
     private void triggerLightSurge() {
-        lightSurgeStartMs = System.currentTimeMillis();
-        ter.setLightRadius(SURGE_LIGHT_RADIUS);
+        lightSurgeStartTick = tick;
+        lightRadius = SURGE_LIGHT_RADIUS;
     }
 
     private void updateLightingRadius() {
-        if (lightSurgeStartMs < 0) {
+        if (lightSurgeStartTick < 0) {
             return;
         }
 
-        long now = System.currentTimeMillis();
-        long elapsed = now - lightSurgeStartMs;
+        long elapsed = (tick - lightSurgeStartTick) * SIM_TICK_MS;
 
         if (elapsed <= LIGHT_SURGE_DURATION_MS) {
-            ter.setLightRadius(SURGE_LIGHT_RADIUS);
+            lightRadius = SURGE_LIGHT_RADIUS;
             return;
         }
 
         if (elapsed <= LIGHT_SURGE_DURATION_MS + LIGHT_FADE_DURATION_MS) {
             double fadeProgress = (double) (elapsed - LIGHT_SURGE_DURATION_MS) / LIGHT_FADE_DURATION_MS;
             double radius = SURGE_LIGHT_RADIUS - (SURGE_LIGHT_RADIUS - BASE_LIGHT_RADIUS) * fadeProgress;
-            ter.setLightRadius(radius);
+            lightRadius = radius;
             return;
         }
 
-        lightSurgeStartMs = -1L;
-        ter.setLightRadius(BASE_LIGHT_RADIUS);
+        lightSurgeStartTick = -1L;
+        lightRadius = BASE_LIGHT_RADIUS;
     }
 
     private void showMainMenu() {
-        StdDraw.clear(Color.BLACK);
-        StdDraw.setPenColor(Color.WHITE);
-        StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0 + 3, "BYOW");
-        StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0 + 1, "N - New World");
-        StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0, "L - Load");
-        StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0  - 1, "Q - Quit");
-        StdDraw.show();
+        Scene scene = ter.beginFrame();
+        menuText(scene, viewHeight / 2.0 + 3, "BYOW");
+        menuText(scene, viewHeight / 2.0 + 1, "N - New World");
+        menuText(scene, viewHeight / 2.0, "L - Load");
+        menuText(scene, viewHeight / 2.0  - 1, "Q - Quit");
+        if (assets.pending() > 0) {
+            menuText(scene, viewHeight / 2.0 - 3, "Loading assets " + (int) (assets.progress() * 100) + "%");
+        }
+        ter.present();
+    }
+
+    // Block on what the first in-game frames draw with; everything else keeps loading
+    private void awaitFirstFrameAssets() {
+        if (atlasHandle != null) {
+            assets.await(atlasHandle);
+        }
+    }
+
+    private void menuText(Scene scene, double y, String text) {
+        scene.addText(Scene.Layer.HUD, text, viewWidth / 2.0, y, Color.WHITE, Scene.Align.CENTER);
     }
 
     private char waitForMenuSelection() {
         music.playThenCallback("assets/audio/cavegame.wav", () -> music.playLoop("assets/audio/main_menu.wav"));
+        int shownPending = assets.pending();
         while (true) {
-
-            if (StdDraw.hasNextKeyTyped()) {
-                char c = Character.toLowerCase(StdDraw.nextKeyTyped());
-                if (c == 'n' || c == 'l' || c == 'q') {
-                    return c;
-                }
+            if (assets.pending() != shownPending) {
+                shownPending = assets.pending();
+                showMainMenu(); // update the progress line
+            }
+            char c = Character.toLowerCase(keyboard.nextTyped());
+            if (c == 'n' || c == 'l' || c == 'q') {
+                return c;
             }
             StdDraw.pause(20);
         }
@@ -232,20 +393,18 @@ public class Engine {
     private void promptSeedAndStart() {
         StringBuilder seedBuilder = new StringBuilder();
         while (true) {
-            StdDraw.clear(Color.BLACK);
-            StdDraw.setPenColor(Color.WHITE);
-            StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0 + 2, "Enter Seed, then press S");
-            StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0, seedBuilder.toString());
-            StdDraw.show();
+            Scene scene = ter.beginFrame();
+            menuText(scene, viewHeight / 2.0 + 2, "Enter Seed, then press S");
+            menuText(scene, viewHeight / 2.0, seedBuilder.toString());
+            ter.present();
 
 
-            if (!StdDraw.hasNextKeyTyped()) {
+            char c = keyboard.nextTyped();
+            if (c == 0) {
                 StdDraw.pause(15);
                 continue;
             }
-            char c = StdDraw.nextKeyTyped();
             if (c == 'S' || c == 's') {
-                history.append('n').append(seedBuilder).append('s');
                 startNewWorld(parseSeed(seedBuilder.toString()));
                 return;
             }
@@ -256,70 +415,387 @@ public class Engine {
     }
 
 
+    // Fixed-step simulation, paced rendering: see FramePacer
     private void gameLoop() {
-        final int TICK_MS = 15; // create ticks to create consistent movements - hard coded ms delays caused bad inputs. 15ms per frame, but move N ticks
+        awaitFirstFrameAssets();
         music.playLoop("assets/audio/spookycave.wav"); // uncomment when you want to check music
+        boolean threaded = RENDER_THREAD && !headless;
+        pacer.reset();
+        publishFrame();
+        if (threaded) {
+            renderThread.start();
+        }
         while (true) {
-            renderWithHud();
+            int due = pacer.ticksDue();
+            for (; due > 0; due--) {
+                pacer.begin(FramePacer.Phase.SIMULATION);
+                TickInput input = pollInput(pacer.tickDeadlineNs(due));
+                if (recorder != null) {
+                    recorder.record(tick, input);
+                }
+                if (simulateTick(input)) {
+                    renderThread.stop();
+                    saveGame();
+                    saveRecording();
+                    if (STATS) {
+                        System.err.println("[Pacer] simulation: " + pacer.summary());
+                        System.err.println("[Pacer] systems: " + systems.summary());
+                        if (threaded) {
+                            System.err.println("[Pacer] render thread: " + renderPacer.summary());
+                        }
+                    }
+                    System.exit(0);
+                    return;
+                }
+                pacer.end(FramePacer.Phase.SIMULATION);
+                publishFrame();
+            }
+            if (world != null && avatar != null) {
+                autosave.maybeAutosave(System.currentTimeMillis(), this::captureSnapshot);
+            }
+            if (threaded) {
+                pacer.sleepUntilNextTick();
+                continue;
+            }
+            if (pacer.shouldRender()) {
+                pacer.begin(FramePacer.Phase.RENDER);
+                renderWithHud(frames.latest());
+                pacer.end(FramePacer.Phase.RENDER);
+                pacer.frameRendered();
+            }
+            pacer.sleepUntilNextDeadline();
+        }
+    }
 
+    /** Achieved FPS, jitter and per-phase cost of live rendering. */
+    public FramePacer pacer() {
+        return RENDER_THREAD && !headless ? renderPacer : pacer;
+    }
 
-            while (StdDraw.hasNextKeyTyped()) {
-                char raw = StdDraw.nextKeyTyped();
-                char c = Character.toLowerCase(raw);
-                if (processCommand(c, true, true)) {
-                    return;
+    // Copy what the next frame draws into the triple buffer's free slot and hand it over.
+    // Simulation thread only; this is the one point the render side sees game state.
+    private void publishFrame() {
+        if (world == null || avatar == null) {
+            return;
+        }
+        RenderState state = frames.writeSlot();
+        state.clear();
+        state.tick = tick;
+        state.publishedNanos = System.nanoTime();
+        state.world = world;
+        state.metadata = worldMeta;
+        state.avatarX = avatar.x();
+        state.avatarY = avatar.y();
+        state.avatarOffsetX = avatarOffsetX;
+        state.avatarOffsetY = avatarOffsetY;
+        state.avatarClip = avatarClip();
+        state.avatarMoving = currentDirection != 0;
+        state.lightRadius = lightRadius;
+        state.hudMessage = hudMessage == null ? "" : hudMessage;
+        state.inventoryVisible = inventoryVisible;
+        if (inventoryVisible) {
+            state.inventoryLines.addAll(inventoryLines());
+        }
+        for (DroppedItem drop : droppedItems) {
+            state.addDrop(drop.x(), drop.y(), Tileset.LOOT_BAG);
+        }
+        if (npcManager != null) {
+            for (Corpse corpse : npcManager.corpses()) {
+                state.addCorpse(corpse.x(), corpse.y(), corpse.tile());
+            }
+            for (int i = 0; i < npcManager.npcCount(); i++) {
+                state.addNpc(npcManager.npc(i));
+            }
+        }
+        frames.publish();
+    }
+
+    // The only place the live game reads the keyboard: the events that arrived before
+    // this tick's deadline, so catch-up ticks each get their own keys
+    private TickInput pollInput(long deadlineNs) {
+        TickInput events = keyboard.poll(deadlineNs);
+        if (events.typed().isEmpty()) {
+            return events;
+        }
+        StringBuilder typed = new StringBuilder();
+        for (char raw : events.typed().toCharArray()) {
+            char c = Character.toLowerCase(raw);
+            // zoom is a view setting, not gameplay: handled here and never recorded
+            switch (c) {
+                case '=', '+' -> zoomLevel = Math.min(zoomLevel + 1, TERenderer.zoomLevelCount() - 1);
+                case '-' -> zoomLevel = Math.max(zoomLevel - 1, 0);
+                case '0' -> zoomLevel = TERenderer.DEFAULT_ZOOM_LEVEL;
+                default -> typed.append(c);
+            }
+        }
+        return new TickInput(events.keys(), typed.toString());
+    }
+
+    /**
+     * Advance the game by exactly one tick. Gameplay only reads input from here and time from
+     * the tick counter, so the same inputs from the same state always give the same result -
+     * that's what makes recordings replayable.
+     * @return true when the input asked to quit (":q")
+     */
+    boolean simulateTick(TickInput input) {
+        String typed = input.typed();
+        for (int i = 0; i < typed.length(); i++) {
+            char c = typed.charAt(i);
+            if (awaitingQuit) {
+                // ':' swallows the next key either way, like the old blocking prompt did
+                awaitingQuit = false;
+                if (c == 'q') {
+                    return true;
                 }
+                continue;
+            }
+            if (c == ':') {
+                awaitingQuit = true;
+            } else if (c == 'e') {
+                pickupAtAvatar();
+            } else if (c == 'l' && !replaying) {
+                // loading replaces the whole state, so drop the rest of this tick and
+                // start a new recording from the loaded save
+                loadGame();
+                startRecording(true);
+                return false;
             }
-            updateInventoryToggle();
+        }
+
+        if (world != null && avatar != null) {
+            tickInput = input;
+            systems.run(tick);
+        }
+        previousKeys = input.keys();
+        tick += 1;
+        updateLightingRadius();
+        return false;
+    }
+
+    long currentTick() {
+        return tick;
+    }
 
-            handleMovementRealtime(true);
-            if (npcManager != null && avatar != null) {
-                npcManager.tick(world, avatar);
+    private void startRecording(boolean fromSave) {
+        if (world == null || replaying) {
+            recorder = null;
+            return;
+        }
+        byte[] start = null;
+        if (fromSave) {
+            try {
+                start = SnapshotCodec.toBytes(captureSnapshot());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
-            combatService.tick();
-            StdDraw.pause(TICK_MS);
-            tickAvatarAnimation();
+        }
+        recorder = new InputRecorder(seed, tick, start);
+    }
 
+    private void saveRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.finish().write(Path.of(RECORDING_FILE));
+        } catch (IOException e) {
+            System.err.println("[Replay] Unable to write " + RECORDING_FILE + ": " + e.getMessage());
+        }
+    }
 
-//            if (!StdDraw.hasNextKeyTyped()) {
-//                StdDraw.pause(15);
-//                continue;
-//            }
-//            char c = StdDraw.nextKeyTyped();
-//            if (processCommand(Character.toLowerCase(c), true, true)) {
-//                return; //save and exit
-//            }
+    /**
+     * Play a recorded session back. Rendered replays run at the normal tick rate in the game
+     * window; unrendered ones run headless as fast as the simulation allows. A non-negative
+     * {@code seekTo} jumps to that tick first. While watching, ',' and '.' seek back and
+     * forward.
+     */
+    public void replay(Path file, boolean render, long seekTo) {
+        effectsEnabled = render;
+        ReplayEngine replay;
+        try {
+            replay = new ReplayEngine(this, InputRecording.read(file), REPLAY_CHECKPOINT_TICKS);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[Replay] Unable to replay " + file + ": " + e.getMessage());
+            return;
+        }
+        if (render) {
+            ter.initialize(viewWidth, viewHeight + HUD_HEIGHT);
+            awaitFirstFrameAssets();
         }
+
+        long startNs = System.nanoTime();
+        if (seekTo >= 0) {
+            replay.seek(seekTo);
+        }
+        if (render && !headless) {
+            // watchable replay: same pacing as live play
+            keyboard.attach(StdDrawWindow.frame());
+            pacer.reset();
+            boolean more = !replay.finished();
+            publishFrame();
+            while (more) {
+                long target = replaySeekTarget(replay);
+                if (target >= 0) {
+                    replay.seek(target);
+                    publishFrame();
+                    pacer.reset(); // don't try to catch up on the time the seek took
+                }
+                for (int due = pacer.ticksDue(); due > 0 && more; due--) {
+                    more = replay.step();
+                    publishFrame();
+                }
+                if (pacer.shouldRender()) {
+                    renderWithHud(frames.latest());
+                    pacer.frameRendered();
+                }
+                pacer.sleepUntilNextDeadline();
+            }
+        } else {
+            while (replay.step()) {
+                if (render) {
+                    publishFrame();
+                    renderWithHud(frames.latest());
+                }
+            }
+        }
+        if (!STATS) {
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - startNs) / 1_000_000L;
+        String where = avatar == null ? "" : ", avatar at (" + avatar.x() + ", " + avatar.y() + ")";
+        System.err.println("[Replay] " + (replay.tick() - replay.startTick()) + " ticks in "
+                + elapsedMs + " ms" + where);
+        if (render && headless) {
+            System.err.println("[Replay] rendered " + headlessRenderer.summary());
+        }
+        System.err.println("[Replay] systems: " + systems.summary());
+    }
+
+    // Tick the viewer asked to jump to with ',' / '.', or -1
+    private long replaySeekTarget(ReplayEngine replay) {
+        long target = -1;
+        for (char c = keyboard.nextTyped(); c != 0; c = keyboard.nextTyped()) {
+            long from = target >= 0 ? target : replay.tick();
+            if (c == ',') {
+                target = Math.max(replay.startTick(), from - REPLAY_SEEK_TICKS);
+            } else if (c == '.') {
+                target = Math.min(replay.endTick(), from + REPLAY_SEEK_TICKS);
+            }
+        }
+        return target;
+    }
+
+    // Put the engine in the state a recording starts from
+    void beginReplay(InputRecording recording) {
+        replaying = true;
+        recorder = null;
+        byte[] start = recording.startSnapshot();
+        if (start == null) {
+            reset();
+            startNewWorld(recording.seed());
+            return;
+        }
+        GameSnapshot snapshot;
+        try {
+            snapshot = SnapshotCodec.fromBytes(start);
+            validateSnapshot(snapshot);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Recording has a corrupt start snapshot", e);
+        }
+        restoreSnapshot(snapshot);
     }
 
 
     //primary method for overlaying world
-    private void renderWithHud() {
-        StdDraw.clear(Color.BLACK);
-        if (lightSurgeStartMs >= 0) {
-            updateLightingRadius();
+    // Fills this frame's scene layer by layer from a published RenderState, then presents it
+    // through the renderer backend. Runs on the render thread during live play.
+    private void renderWithHud(RenderState state) {
+        if (state == null) {
+            return;
+        }
+        ter.setZoomLevel(zoomLevel);
+        if (ter.fitToSurface()) {
+            viewWidth = ter.viewWidth();
+            viewHeight = ter.viewHeight();
         }
-        ter.setAvatarPosition(avatar.x, avatar.y);
+        // on screen, frames interpolate into the next tick; headless ones sit exactly on it
+        state.animate(headless ? state.tick
+                : animationClock.timeAt(state.tick, state.publishedNanos, System.nanoTime()));
+        ter.setWorldMetadata(state.metadata);
+        ter.setLightRadius(state.lightRadius);
+        ter.setAvatarPosition(state.avatarX, state.avatarY);
         ter.updateCamera();
+        String hoverText = tileUnderMouse(state);
+        long key = renderKey(state, hoverText);
+        if (key == lastRenderKey && !ter.needsPresent()) {
+            return; // nothing visible changed; the backend already shows this frame
+        }
+        lastRenderKey = key;
+        TETile[][] world = state.world;
         TERenderer.RenderContext context = ter.buildContext(world);
+        Scene scene = context.scene();
         ter.drawBaseTiles(world, context);
-        ter.drawCorpses(npcManager == null ? null : npcManager.corpses(), context);
-        ter.drawDroppedItems(droppedItems, context);
-        ter.drawNpcsBack(world, npcManager, context);
-        drawAvatar();
-        ter.drawNpcsFront(world, npcManager, context);
-        ter.drawFrontTiles(context);
+        ter.drawCorpses(state, context);
+        ter.drawDroppedItems(state, context);
+        ter.drawDepthSorted(world, state, context);
         ter.applyFullLightingPass(world, context);
-        drawHud();
-        drawInventoryOverlay();
-        StdDraw.picture(screenWidth / 2, screenHeight / 2, "assets/ui/healthbar_early_concept.png", 20,10);
-        StdDraw.show();
+        drawHud(scene, state, hoverText);
+        drawInventoryOverlay(scene, state);
+        ter.present();
+    }
+
+    // Everything a frame's pixels depend on. Equal keys mean the scene would come out
+    // identical, so building it can be skipped; the backends' damage tracking then only
+    // repaints what changed when it does differ. Every value goes through a full mixing
+    // step, so a change in one field can't cancel out a change in another.
+    private long renderKey(RenderState state, String hoverText) {
+        long h = mix(0, System.identityHashCode(state.world));
+        h = mix(h, ter.zoomLevel());
+        h = mix(h, viewWidth);
+        h = mix(h, viewHeight);
+        h = mix(h, ter.getViewOriginX());
+        h = mix(h, ter.getViewOriginY());
+        h = mix(h, state.avatarX);
+        h = mix(h, state.avatarY);
+        h = mix(h, Double.doubleToLongBits(state.avatarOffsetX));
+        h = mix(h, Double.doubleToLongBits(state.avatarOffsetY));
+        h = mix(h, System.identityHashCode(state.avatarSprite));
+        h = mix(h, Double.doubleToLongBits(state.lightRadius));
+        h = mix(h, state.hudMessage.hashCode());
+        h = mix(h, hoverText.hashCode());
+        h = mix(h, state.inventoryVisible ? 1 : 0);
+        h = mix(h, state.inventoryLines.hashCode());
+        h = mix(h, state.dropCount());
+        for (int i = 0; i < state.dropCount(); i++) {
+            RenderState.Prop drop = state.drop(i);
+            h = mix(h, drop.x());
+            h = mix(h, drop.y());
+        }
+        h = mix(h, state.corpseCount());
+        for (int i = 0; i < state.corpseCount(); i++) {
+            RenderState.Prop corpse = state.corpse(i);
+            h = mix(h, corpse.x());
+            h = mix(h, corpse.y());
+        }
+        h = mix(h, state.npcCount());
+        for (int i = 0; i < state.npcCount(); i++) {
+            RenderState.Actor npc = state.npc(i);
+            h = mix(h, npc.x());
+            h = mix(h, npc.y());
+            h = mix(h, Double.doubleToLongBits(npc.drawX()));
+            h = mix(h, Double.doubleToLongBits(npc.drawY()));
+            h = mix(h, System.identityHashCode(npc.tile()));
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        return SplitMixRandom.mix64(h + value);
     }
 
     //Draw hud (just a bar at the top that displays tile under mouse
-    private void drawHud() {
-        StdDraw.setPenColor(Color.WHITE);
-        double hudY = VIEW_HEIGHT + 1.5;
+    private void drawHud(Scene scene, RenderState state, String hoverText) {
+        double hudY = viewHeight + 1.5;
 
 
         double barWidth = 30;   // or whatever large size you want
@@ -327,109 +803,120 @@ public class Engine {
 
         double leftMargin = HUD_MARGIN_TILES;
         double hbX = leftMargin + barWidth / 2.0;
-        double hbY = VIEW_HEIGHT + HUD_HEIGHT - (barHeight / 2.0) - HUD_MARGIN_TILES * 2;
+        double hbY = viewHeight + HUD_HEIGHT - (barHeight / 2.0) - HUD_MARGIN_TILES * 2;
 
-        StdDraw.picture(hbX, hbY, HEALTHBAR_IMAGE_PATH, barWidth, barHeight);
-        StdDraw.textLeft(1, hudY, tileUnderMouse());
-        //StdDraw.textLeft(15, hudY, "Inventory: " + inventorySummary());
-        if (!hudMessage.isEmpty()) {
-            StdDraw.textRight(VIEW_WIDTH - 1, hudY, hudMessage);
-        }
+        scene.addSpriteCentered(Scene.Layer.HUD, HEALTHBAR, hbX, hbY, barWidth, barHeight);
+        scene.addText(Scene.Layer.HUD, hoverText, 1, hudY, Color.WHITE, Scene.Align.LEFT);
+        //scene.addText(Scene.Layer.HUD, "Inventory: " + inventorySummary(), 15, hudY, Color.WHITE, Scene.Align.LEFT);
+        scene.addText(Scene.Layer.HUD, state.hudMessage, viewWidth - 1, hudY, Color.WHITE, Scene.Align.RIGHT);
     }
 
-    private String tileUnderMouse() {
-        int screenX = (int) StdDraw.mouseX();
-        int screenY = (int) StdDraw.mouseY();
+    private String tileUnderMouse(RenderState state) {
+        if (headless) {
+            return "";
+        }
+        double screenX = ter.mouseX();
+        double screenY = ter.mouseY();
 
-        if (screenX < 0 || screenX >= VIEW_WIDTH || screenY < 0 || screenY >= VIEW_HEIGHT) {
+        if (screenX < 0 || screenX >= viewWidth || screenY < 0 || screenY >= viewHeight) {
             return "";
         }
 
-        int worldX = screenX + ter.getViewOriginX();
-        int worldY = screenY + ter.getViewOriginY();
+        int worldX = ter.toWorldX(screenX);
+        int worldY = ter.toWorldY(screenY);
 
+        TETile[][] world = state.world;
         if (world == null || worldX < 0 || worldX >= WORLD_WIDTH || worldY < 0 || worldY >= WORLD_HEIGHT) {
             return "";
         }
 
-        if (npcManager != null) {
-            for (Npc npc : npcManager.npcs()) {
-                if (npc.x() == worldX && npc.y() == worldY) {
-                    return npc.currentTile().description();
-                }
-            }
-            if (avatar != null && avatar.x == worldX && avatar.y == worldY) {
-                return avatarSprite.description();
-            }
-            return world[worldX][worldY].description();
+        RenderState.Actor npc = state.npcAt(worldX, worldY);
+        if (npc != null) {
+            return npc.tile().description();
         }
-        return "";
-
+        if (state.avatarX == worldX && state.avatarY == worldY) {
+            return state.avatarSprite.description();
+        }
+        return world[worldX][worldY].description();
     }
 
 
 
     // Inventory rendering
     private String inventorySummary() {
-        if (inventory == null) {
+        if (inventory == null || inventory.stackCount() == 0) {
             return "Empty";
         }
-        List<ItemStack> stacks = inventory.nonEmptySlots();
-        if (stacks.isEmpty()) {
-            return "Empty";
+        StringBuilder summary = new StringBuilder();
+        int shown = 0;
+        for (int i = inventory.nextStackSlot(0); i >= 0 && shown < 3; i = inventory.nextStackSlot(i + 1)) {
+            ItemStack s = inventory.stackAt(i);
+            if (shown > 0) {
+                summary.append(", ");
+            }
+            summary.append(s.item().name()).append(" x").append(s.quantity());
+            shown += 1;
         }
-        return stacks.stream()
-                .limit(3)
-                .map(s -> s.item().name() + " x" + s.quantity())
-                .collect(Collectors.joining(", "));
+        return summary.toString();
     }
 
-    private void drawInventoryOverlay() {
-        if (!inventoryVisible) {
+    // Overlay lines, rebuilt only when the inventory changed since last time
+    private List<String> inventoryLines() {
+        if (inventory != linesInventory || inventory.version() != linesVersion) {
+            inventoryLines.clear();
+            for (int i = inventory.nextStackSlot(0); i >= 0; i = inventory.nextStackSlot(i + 1)) {
+                inventoryLines.add(inventory.stackAt(i).toString());
+            }
+            linesInventory = inventory;
+            linesVersion = inventory.version();
+        }
+        return inventoryLines;
+    }
+
+    private void drawInventoryOverlay(Scene scene, RenderState state) {
+        if (!state.inventoryVisible) {
             return;
         }
-        StdDraw.setPenColor(new Color(0, 0, 0, 200));
-        StdDraw.filledRectangle(VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0, VIEW_WIDTH / 2.0, VIEW_HEIGHT / 2.0);
-        StdDraw.setPenColor(Color.WHITE);
-        StdDraw.text(VIEW_WIDTH / 2.0, VIEW_HEIGHT - 2, "Inventory (press I to close)");
+        scene.addRect(Scene.Layer.HUD, INVENTORY_DIM, 0, 0, viewWidth, viewHeight);
+        scene.addText(Scene.Layer.HUD, "Inventory (press I to close)", viewWidth / 2.0, viewHeight - 2,
+                Color.WHITE, Scene.Align.CENTER);
 
-        double startY = VIEW_HEIGHT - 4;
+        double startY = viewHeight - 4;
         int index = 0;
-        for (ItemStack stack : inventory.nonEmptySlots()) {
+        for (String line : state.inventoryLines) {
             double y = startY - index * 1.5;
             if (y < HUD_HEIGHT) {
                 break;
             }
-            StdDraw.textLeft(2, y, stack.toString());
+            scene.addText(Scene.Layer.HUD, line, 2, y, Color.WHITE, Scene.Align.LEFT);
             index += 1;
         }
         if (index == 0) {
-            StdDraw.textLeft(2, startY, "(empty)");
+            scene.addText(Scene.Layer.HUD, "(empty)", 2, startY, Color.WHITE, Scene.Align.LEFT);
         }
     }
 
 
-    private void updateInventoryToggle() {
-        boolean tab = StdDraw.isKeyPressed(KeyEvent.VK_V);
+    private void updateInventoryToggle(TickInput input) {
+        boolean tab = input.isDown(TickInput.KEY_INVENTORY);
+        boolean tabDown = (previousKeys & TickInput.KEY_INVENTORY) != 0;
 
         // Edge-trigger: only toggle when Tab goes from up -> down
         if (tab && !tabDown) {
             inventoryVisible = !inventoryVisible;
         }
-
-        tabDown = tab;
     }
 
 
     // applyCommands for loading saves
-    private void applyCommands(String input, boolean recordHistory, boolean allowQuit) {
+    private void applyCommands(String input, boolean allowQuit) {
         boolean awaitingQuit = false;
         int i = 0;
         while (i < input.length()) {
             char c = input.charAt(i);
             if (awaitingQuit) {
                 if (c == 'q') {
-                    saveHistory();
+                    saveGame();
                     if (allowQuit) {
                         music.stop();
                         System.exit(0);
@@ -451,9 +938,6 @@ public class Engine {
                         return; // seed not of correct form
                     }
                     String seedStr = input.substring(start, end);
-                    if (recordHistory) {
-                        history.append('n').append(seedStr).append('s');
-                    }
                     startNewWorld(parseSeed(seedStr));
                     i=end;
                     break;
@@ -465,10 +949,7 @@ public class Engine {
                 case 's':
                 case 'd':
                     if (world != null) {
-                        if (recordHistory) {
-                            history.append(c);
-                        }
-                        //moveAvatar(c);
+                        moveAvatar(c);
                     }
                     break;
                 case 'e':
@@ -486,24 +967,23 @@ public class Engine {
 
 
     // This one is a bit of a mess
-    private void handleMovementRealtime(boolean record) {
+    private void handleMovement(TickInput input) {
         // check if shift down and assign T/F for each directional val
-        shiftDown = StdDraw.isKeyPressed(KeyEvent.VK_SHIFT);
-        boolean tab = StdDraw.isKeyPressed(KeyEvent.VK_TAB);
-        boolean w = StdDraw.isKeyPressed(KeyEvent.VK_W);
-        boolean a = StdDraw.isKeyPressed(KeyEvent.VK_A);
-        boolean s = StdDraw.isKeyPressed(KeyEvent.VK_S);
-        boolean d = StdDraw.isKeyPressed(KeyEvent.VK_D);
+        boolean shiftDown = input.isDown(TickInput.KEY_SHIFT);
+        boolean w = input.isDown(TickInput.KEY_W);
+        boolean a = input.isDown(TickInput.KEY_A);
+        boolean s = input.isDown(TickInput.KEY_S);
+        boolean d = input.isDown(TickInput.KEY_D);
 
         // Check if any key pressed, used to reset direction
         boolean anyDown = w || a || s || d;
 
 
-        // check if press or press and hold (Down vars jut recheck keyEvent)
-        boolean wJust = w && !wDown;
-        boolean aJust = a && !aDown;
-        boolean sJust = s && !sDown;
-        boolean dJust = d && !dDown;
+        // check if press or press and hold (compare against last tick's keys)
+        boolean wJust = w && (previousKeys & TickInput.KEY_W) == 0;
+        boolean aJust = a && (previousKeys & TickInput.KEY_A) == 0;
+        boolean sJust = s && (previousKeys & TickInput.KEY_S) == 0;
+        boolean dJust = d && (previousKeys & TickInput.KEY_D) == 0;
 
         // Detect single key presses and move immediately
         if (wJust) currentDirection = 'w';
@@ -527,9 +1007,8 @@ public class Engine {
 
 
                 boolean moved = moveAvatar(currentDirection);
-                if (record) history.append(currentDirection);
                 if (moved) {
-                    music.playRandomEffect();
+                    footstepCues += 1;
                     pickupAtAvatar();
                 }
                 ticksSinceLastMove = 0;
@@ -540,21 +1019,23 @@ public class Engine {
 
                 if (ticksSinceLastMove >= speedTicks) {
                     boolean moved = moveAvatar(currentDirection);
-                    if (record) history.append(currentDirection);
                     if (moved) {
-                        music.playRandomEffect();
+                        footstepCues += 1;
                         pickupAtAvatar();
                     }
                     ticksSinceLastMove = 0;
                 }
             }
         }
+    }
 
-        // Update previous key states
-        wDown = w;
-        aDown = a;
-        sDown = s;
-        dDown = d;
+    private void playFootsteps() {
+        for (; footstepCues > 0; footstepCues--) {
+            if (effectsEnabled) {
+                music.effects().setListener(avatar.x(), avatar.y()); // positional effects are heard from here
+                music.playRandomEffect();
+            }
+        }
     }
 
     // Allow for return to prior direction on multi key movements
@@ -566,73 +1047,54 @@ public class Engine {
         return 0;
     }
 
-    // Checks for System commands (save/quit)
-    private boolean processCommand(char command, boolean record, boolean allowQuit) {
-        if (command == ':') {
-            while (true) {
-                if (StdDraw.hasNextKeyTyped()) {
-                    char next = Character.toLowerCase(StdDraw.nextKeyTyped());
-                    if (next == 'q') {
-                        saveHistory();
-                        if (allowQuit) {
-                            System.exit(0);
-                        }
-                        return true;
-                    } else {
-                        return false;
-                    }
-                }
-                StdDraw.pause(15);
-            }
-        }
-        if (command == 'e') {
-            pickupAtAvatar();
-            return false;
-        }
-        if (command == 'w' || command == 's' || command == 'a' || command == 'd'){
-            return false;
-        }
-        applyCommands(String.valueOf(command), record, allowQuit);
-        return false;
-    }
-
-
     // Generator func via seed - drop player
     private void startNewWorld(long seed) {
-        World generator = new World(seed);
+        generateWorld(seed);
+        npcManager.spawn(worldMeta, avatar.x(), avatar.y());
+        // give initial items and random spawn ground loot
+        seedInitialInventory();
+        seedDroppedItems(rngs.stream(RngService.Stream.LOOT));
+    }
+
+    // Shared by new games and loads: world, metadata, avatar and an empty NPC manager
+    private void generateWorld(long seed) {
+        this.seed = seed;
+        rngs = new RngService(seed); // every seeded stream (world phases, NPCs, loot) derives from here
+        World generator = new World(rngs);
         world = generator.generate();
+        worldMeta = generator.metadata();
+        spawnActors();
+    }
+
+    private void spawnActors() {
         resetLighting();
         placeAvatar();
-        npcManager = new NpcManager(new Random(seed ^ NPC_SEED_SALT), combatService); // golden ratio hash, allows nice NPC RNG relative to world RNG
+        npcManager = new NpcManager(rngs, entities, combatService);
         npcManager.setDeathHandler(this::handleNpcDeath);
-        npcManager.spawn(world, avatar.x, avatar.y);
-        // give initial items and random spawn ground loot
-        seedInitialInventory();
-        seedDroppedItems(new Random(seed));
     }
 
     // Find first coordiate that is valid placement for player on spawn - just seeks from bottom right currently
     // Eventually include ladder/elevator placement
+    // Spawn cells are stored in the same x-then-y scan order, so the first one is the old first floor tile
     private void placeAvatar() {
-        for (int x = 0; x < WORLD_WIDTH; x+=1) {
-            for (int y =0; y < WORLD_HEIGHT; y+=1) {
-                if (world[x][y].equals(Tileset.FLOOR)) {
-                    HealthComponent avatarHealth = new HealthComponent(10, 10, 1, 15);
-                    avatarHealth.addDeathCallback(this::handleAvatarDeath);
-                    avatar = new Avatar(x, y, 3, avatarHealth);
-                    avatar.setSpawnPoint(new Entity.Position(x, y));
-                    combatService.register(avatar);
-                    avatarSprite = Tileset.AVATAR_DOWN_FRAMES[0];
-                    // Snap the smoothed draw coordinates to the spawn tile so the avatar
-                    // doesn't glide in from (0,0) on the first frame.
-                    avatarOffsetX = 0.0;
-                    avatarOffsetY = 0.0;
-                    drawX = avatar.x;
-                    drawY = avatar.y;
-                    return;
-                }
-            }
+        if (worldMeta.spawnCellCount() == 0) {
+            return;
         }
+        int cell = worldMeta.spawnCell(0);
+        int x = worldMeta.cellX(cell);
+        int y = worldMeta.cellY(cell);
+        HealthComponent avatarHealth = new HealthComponent(10, 10, 1, 15);
+        avatarHealth.addDeathCallback(this::handleAvatarDeath);
+        avatar = new Avatar(x, y, 3, avatarHealth);
+        avatar.setSpawnPoint(new Entity.Position(x, y));
+        entities.add(avatar);
+        lastFacing = 's';
+        // Snap the smoothed draw coordinates to the spawn tile so the avatar
+        // doesn't glide in from (0,0) on the first frame.
+        avatarOffsetX = 0.0;
+        avatarOffsetY = 0.0;
+        drawX = avatar.x();
+        drawY = avatar.y();
     }
 
 
@@ -649,7 +1111,6 @@ public class Engine {
             avatarOffsetY = plan.offsetY();
             moved = true;
         }
-        refreshAvatarSprite();
         return moved;
     }
 
@@ -664,16 +1125,16 @@ public class Engine {
 
         switch (direction) {
             case 'w':
-                target = new Entity.Position(avatar.x, avatar.y + 1);
+                target = new Entity.Position(avatar.x(), avatar.y() + 1);
                 break;
             case 'a':
-                target = new Entity.Position(avatar.x - 1, avatar.y);
+                target = new Entity.Position(avatar.x() - 1, avatar.y());
                 break;
             case 's':
-                target = new Entity.Position(avatar.x, avatar.y - 1);
+                target = new Entity.Position(avatar.x(), avatar.y() - 1);
                 break;
             case 'd':
-                target = new Entity.Position(avatar.x + 1, avatar.y);
+                target = new Entity.Position(avatar.x() + 1, avatar.y());
                 break;
             default:
                 return null;
@@ -721,25 +1182,28 @@ public class Engine {
     }
 
 
-    // Randmly place items around the map
+    // Randmly place items around the map: rolls from the world loot table on random floor
+    // cells, never the avatar's (its cell is just skipped over, so no retries)
     private void seedDroppedItems(Random random) {
         if (world == null || avatar == null) {
             return;
         }
-        Item[] candidates = new Item[]{ItemRegistry.LIGHT_SHARD};
-        int placed = 0;
-        int attempts = 0;
-        while (placed < 6 && attempts < 400) {
-            int x = random.nextInt(WORLD_WIDTH);
-            int y = random.nextInt(WORLD_HEIGHT);
-            attempts += 1;
-            if (!world[x][y].equals(Tileset.FLOOR) || (x == avatar.x && y == avatar.y)) {
-                continue;
+        int cells = worldMeta.spawnCellCount();
+        if (cells < 2) {
+            return;
+        }
+        LootTable table = LootTables.world();
+        for (int i = 0; i < WORLD_DROP_COUNT; i++) {
+            int index = random.nextInt(cells);
+            int cell = worldMeta.spawnCell(index);
+            if (worldMeta.cellX(cell) == avatar.x() && worldMeta.cellY(cell) == avatar.y()) {
+                cell = worldMeta.spawnCell((index + 1) % cells);
+            }
+            ItemStack loot = table.roll(random);
+            if (loot != null) {
+                droppedItems.add(new DroppedItem(loot.item(), loot.quantity(),
+                        worldMeta.cellX(cell), worldMeta.cellY(cell)));
             }
-            Item choice = candidates[placed % candidates.length];
-            int qty = 1 + random.nextInt(Math.max(1, choice.getMaxStackSize() / 2));
-            droppedItems.add(new DroppedItem(choice, qty, x, y));
-            placed += 1;
         }
     }
 
@@ -753,7 +1217,7 @@ public class Engine {
         List<DroppedItem> remaining = new ArrayList<>();
         boolean pickedSomething = false;
         for (DroppedItem drop : droppedItems) {
-            if (drop.x() == avatar.x && drop.y() == avatar.y) {
+            if (drop.x() == avatar.x() && drop.y() == avatar.y()) {
                 if (drop.item() == ItemRegistry.LIGHT_SHARD) {
                     triggerLightSurge();
                     pickedSomething = true;
@@ -783,10 +1247,7 @@ public class Engine {
 
     // True iff valid world position and is FLOOR tile
     private boolean isWalkableFloor(Entity.Position pos) {
-        if (pos.x() < 0 || pos.x() >= WORLD_WIDTH || pos.y() < 0 || pos.y() >= WORLD_HEIGHT) {
-            return false;
-        }
-        return world[pos.x()][pos.y()].equals(Tileset.FLOOR);
+        return worldMeta != null && worldMeta.isWalkable(pos.x(), pos.y());
     }
 
 
@@ -807,64 +1268,171 @@ public class Engine {
             return;
         }
         for (core.items.ItemStack stack : inventory.dumpAll()) {
-            droppedItems.add(new DroppedItem(stack.item(), stack.quantity(), fallen.x, fallen.y));
+            droppedItems.add(new DroppedItem(stack.item(), stack.quantity(), fallen.x(), fallen.y()));
         }
         fallen.loseLife();
         hudMessage = "You died! Lives left: " + fallen.lives();
         fallen.respawn();
         avatarOffsetX = 0.0;
         avatarOffsetY = 0.0;
-        drawX = fallen.x;
-        drawY = fallen.y;
+        drawX = fallen.x();
+        drawY = fallen.y();
     }
 
     private void handleNpcDeath(Npc npc) {
         if (npc == null) {
             return;
         }
-        droppedItems.add(new DroppedItem(ItemRegistry.GEMSTONE, 1, npc.x(), npc.y()));
+        // the NPC's own stream: saved with it, and unused once it's dead
+        ItemStack loot = LootTables.forNpcVariant(npc.variant()).roll(npc.rng());
+        if (loot != null) {
+            droppedItems.add(new DroppedItem(loot.item(), loot.quantity(), npc.x(), npc.y()));
+        }
+    }
+
+
+    // Which walk cycle the avatar shows: the held direction, else the last one faced.
+    // Idle shows the clip's first frame (see RenderState.animate).
+    private AnimationClip avatarClip() {
+        char facing = currentDirection != 0 ? currentDirection : lastFacing;
+        return AVATAR_WALK.facing(switch (facing) {
+            case 'w' -> Direction.UP;
+            case 'a' -> Direction.LEFT;
+            case 'd' -> Direction.RIGHT;
+            default -> Direction.DOWN;
+        });
     }
 
 
-    private void tickAvatarAnimation() {
-        long now = System.currentTimeMillis();
-        if (currentDirection != 0) {
-            if (now - lastAnimUpdateMs >= AVATAR_ANIM_MS) {
-                animFrame = (animFrame + 1) % MAX_FRAMES;
-                lastAnimUpdateMs = now;
-                refreshAvatarSprite();
+    //Load game via save file if exists - newest readable binary snapshot first
+    // (rotated autosaves as backups), legacy history replay as fallback
+    private void loadGame() {
+        for (Path candidate : autosave.candidates()) {
+            if (!FileUtils.fileExists(candidate.toString())) {
+                continue;
             }
-        } else {
-            animFrame = 0;
+            GameSnapshot snapshot;
+            try {
+                snapshot = SnapshotCodec.read(candidate);
+                validateSnapshot(snapshot);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[Save] Unable to read " + candidate + ": " + e.getMessage());
+                continue; // try the next backup
+            }
+            restoreSnapshot(snapshot);
+            return;
+        }
+        if (!FileUtils.fileExists(LEGACY_SAVE_FILE)) {
+            return;
         }
-        refreshAvatarSprite();
+        String saved = FileUtils.readFile(LEGACY_SAVE_FILE).toLowerCase(Locale.ROOT);
+        applyCommands(saved, false);
     }
 
-    private void refreshAvatarSprite() {
-        char facing = (currentDirection != 0) ? currentDirection : lastFacing;
-        switch (facing) {
-            case 'w' -> avatarSprite = Tileset.AVATAR_UP_FRAMES[animFrame];
-            case 'a' -> avatarSprite = Tileset.AVATAR_LEFT_FRAMES[animFrame];
-            case 'd' -> avatarSprite = Tileset.AVATAR_RIGHT_FRAMES[animFrame];
-            default -> avatarSprite = Tileset.AVATAR_DOWN_FRAMES[animFrame];
+    // Basic save func - nothing to save until a world exists. Blocks until the
+    // atomic write finishes since the caller usually exits right after.
+    private void saveGame() {
+        if (world == null || avatar == null) {
+            return;
         }
-        lastFacing = facing;
+        autosave.saveNow(captureSnapshot());
     }
 
+    GameSnapshot captureSnapshot() {
+        HealthComponent hp = avatar.health();
+        GameSnapshot.AvatarState avatarState = new GameSnapshot.AvatarState(avatar.x(), avatar.y(),
+                avatar.lives(), hp.current(), hp.invulnerabilityRemaining(), lastFacing);
 
-    //Load game via save file if exists, restores state via applyCommands
-    private void loadGame() {
-        if (!FileUtils.fileExists(SAVE_FILE)) {
-            return;
+        List<GameSnapshot.StackState> stacks = new ArrayList<>(inventory.stackCount());
+        for (int i = inventory.nextStackSlot(0); i >= 0; i = inventory.nextStackSlot(i + 1)) {
+            ItemStack stack = inventory.stackAt(i);
+            stacks.add(new GameSnapshot.StackState(i, stack.item().id(), stack.quantity()));
         }
-        String saved = FileUtils.readFile(SAVE_FILE).toLowerCase(Locale.ROOT);
-        history = new StringBuilder(saved);
-        applyCommands(saved, false, false);
+
+        List<GameSnapshot.DropState> drops = new ArrayList<>(droppedItems.size());
+        for (DroppedItem drop : droppedItems) {
+            drops.add(new GameSnapshot.DropState(drop.item().id(), drop.quantity(), drop.x(), drop.y()));
+        }
+
+        long lightElapsed = lightSurgeStartTick < 0 ? -1L : (tick - lightSurgeStartTick) * SIM_TICK_MS;
+        GameSnapshot.ControlState control = new GameSnapshot.ControlState(tick, previousKeys,
+                currentDirection, ticksSinceLastMove, inventoryVisible, awaitingQuit);
+        return new GameSnapshot(seed, avatarState, stacks, npcManager.snapshotNpcs(), drops,
+                npcManager.snapshotCorpses(), lightElapsed, control);
     }
 
-    // Basic save func
-    private void saveHistory() {
-        FileUtils.writeFile(SAVE_FILE, history.toString());
+    // Everything restoreSnapshot relies on, checked before it touches any state so a
+    // corrupt save can be rejected without losing the current session
+    static void validateSnapshot(GameSnapshot snapshot) throws IOException {
+        GameSnapshot.AvatarState avatarState = snapshot.avatar();
+        checkInWorld(avatarState.x(), avatarState.y(), "avatar");
+        for (GameSnapshot.NpcState npc : snapshot.npcs()) {
+            checkInWorld(npc.x(), npc.y(), "npc");
+            if (!Npc.isRestorable(npc)) {
+                throw new IOException("Bad npc state at (" + npc.x() + ", " + npc.y() + ")");
+            }
+        }
+        for (GameSnapshot.DropState drop : snapshot.drops()) {
+            checkInWorld(drop.x(), drop.y(), "drop");
+        }
+        for (GameSnapshot.CorpseState corpse : snapshot.corpses()) {
+            checkInWorld(corpse.x(), corpse.y(), "corpse");
+        }
+        if (snapshot.control().tick() < 0) {
+            throw new IOException("Bad tick " + snapshot.control().tick());
+        }
+    }
+
+    private static void checkInWorld(int x, int y, String what) throws IOException {
+        if (x < 0 || x >= WORLD_WIDTH || y < 0 || y >= WORLD_HEIGHT) {
+            throw new IOException("Bad " + what + " position (" + x + ", " + y + ")");
+        }
+    }
+
+    // Regenerate the world from the saved seed, then overwrite the dynamic state.
+    // Callers validate first (validateSnapshot); nothing here can fail halfway.
+    // Same seed as the current world (replay seeking) only rebuilds the dynamic state.
+    void restoreSnapshot(GameSnapshot snapshot) {
+        if (world != null && seed == snapshot.seed()) {
+            resetSession();
+            spawnActors();
+        } else {
+            reset();
+            generateWorld(snapshot.seed());
+        }
+
+        GameSnapshot.ControlState control = snapshot.control();
+        tick = control.tick();
+        previousKeys = control.previousKeys();
+        currentDirection = control.currentDirection();
+        ticksSinceLastMove = control.ticksSinceLastMove();
+        inventoryVisible = control.inventoryVisible();
+        awaitingQuit = control.awaitingQuit();
+
+        GameSnapshot.AvatarState saved = snapshot.avatar();
+        avatar.setPosition(saved.x(), saved.y());
+        avatar.setLives(saved.lives());
+        avatar.health().restoreState(saved.health(), saved.invulnerability());
+        lastFacing = saved.facing();
+        drawX = avatar.x();
+        drawY = avatar.y();
+
+        npcManager.restore(worldMeta, snapshot.npcs(), snapshot.corpses());
+
+        for (GameSnapshot.StackState stack : snapshot.inventory()) {
+            inventory.restoreSlot(stack.slot(), ItemRegistry.byId(stack.itemId()), stack.quantity());
+        }
+        for (GameSnapshot.DropState drop : snapshot.drops()) {
+            Item item = ItemRegistry.byId(drop.itemId());
+            if (item != null) {
+                droppedItems.add(new DroppedItem(item, drop.quantity(), drop.x(), drop.y()));
+            }
+        }
+
+        if (snapshot.lightSurgeElapsedMs() >= 0) {
+            lightSurgeStartTick = tick - snapshot.lightSurgeElapsedMs() / SIM_TICK_MS;
+            updateLightingRadius();
+        }
     }
 
 
@@ -877,27 +1445,12 @@ public class Engine {
         }
     }
 
-    //Avatar now uses smoothing - placement happens instantly but movement is based on frames
-    private void drawAvatar() {
-        if (avatar != null && avatarSprite != null) {
-            // When movement stops, snap to the target tile to avoid post-input sliding.
-            drawX = avatar.x + avatarOffsetX;
-            drawY = avatar.y + avatarOffsetY;
-//            drawX += (avatar.x - drawX) * SMOOTH_SPEED;
-//            drawY += (avatar.y - drawY) * SMOOTH_SPEED;
-            double avatarScale = 2;   // adjust this number as desired (0.3–0.6 looks good)
-            double screenX = ter.toScreenX(drawX);
-            double screenY = ter.toScreenY(drawY);
-            avatarSprite.drawScaled(screenX, screenY, avatarScale);        }
-    }
-
-
     private TETile[][] worldWithAvatar() {
-        if (world == null || avatar == null || avatarSprite == null) {
+        if (world == null || avatar == null) {
             return world;
         }
         TETile[][] copy = TETile.copyOf(world);
-        copy[avatar.x][avatar.y] = avatarSprite;
+        copy[avatar.x()][avatar.y()] = avatarClip().first();
         return copy;
     }
 
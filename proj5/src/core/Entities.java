@@ -0,0 +1,44 @@
+package core;
+
+import core.ecs.ComponentStore;
+import core.ecs.Registry;
+
+/**
+ * The session's entities: ids from a {@link Registry} plus the components every entity
+ * carries. Adding an entity is the only way it gets an id; its transform and health go
+ * into packed stores that systems iterate instead of walking object lists.
+ */
+public final class Entities {
+    private final Registry registry = new Registry();
+    private final ComponentStore<TransformComponent> transforms = registry.store();
+    private final ComponentStore<HealthComponent> healths = registry.store();
+
+    public void add(Entity entity) {
+        if (entity == null || registry.alive(entity.id())) {
+            return;
+        }
+        entity.setId(registry.create());
+        transforms.put(entity.id(), entity.transform());
+        if (entity.health() != null) {
+            healths.put(entity.id(), entity.health());
+        }
+    }
+
+    public void remove(Entity entity) {
+        registry.destroy(entity.id());
+        entity.setId(Registry.NONE);
+    }
+
+    /** For systems that keep stores of their own (e.g. NPC brains). */
+    public Registry registry() {
+        return registry;
+    }
+
+    public ComponentStore<TransformComponent> transforms() {
+        return transforms;
+    }
+
+    public ComponentStore<HealthComponent> healths() {
+        return healths;
+    }
+}
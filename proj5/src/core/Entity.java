@@ -1,50 +1,54 @@
 package core;
 
+import core.ecs.Registry;
+
 /**
  * Class for Entity objects - will use to abstract NPC/Enemy objects and set defined characteristics
  * Will essentially need to port over eveyhing that Avatar has, plus additional details like RNG, movement
  * countdowns (when to go from idle to moving to seeking) and positioning details
  */
 public class Entity {
-    protected int x;
-    protected int y;
-    protected Direction facing = Direction.DOWN;
+    protected final TransformComponent transform;
     protected double velocityX = 0.0;
     protected double velocityY = 0.0;
     protected HealthComponent health;
+    /** ECS id while registered with the session's {@link Entities}, else {@link Registry#NONE}. */
+    protected int id = Registry.NONE;
 
     public Entity(int x, int y) {
         this(x,y, new HealthComponent(1));
     }
 
     public Entity(int x, int y, HealthComponent health) {
-        this.x = x;
-        this.y = y;
+        this.transform = new TransformComponent(x, y);
         this.health = health;
     }
 
     public int x() {
-        return x;
+        return transform.x();
     }
     public int y(){
-        return y;
+        return transform.y();
     }
 
     public Position position() {
-        return new Position(x,y);
+        return new Position(transform.x(), transform.y());
     }
 
     public void setPosition(int x, int y) {
-        this.x = x;
-        this.y = y;
+        transform.moveTo(x, y);
     }
 
     public Direction facing() {
-        return facing;
+        return transform.facing();
     }
 
     public void setFacing(Direction facing) {
-        this.facing = facing;
+        transform.setFacing(facing);
+    }
+
+    public TransformComponent transform() {
+        return transform;
     }
 
     public double velocityX() {
@@ -61,5 +65,14 @@ public class Entity {
     public HealthComponent health() {
         return health;
     }
+
+    public int id() {
+        return id;
+    }
+
+    // Only Entities hands out ids
+    void setId(int id) {
+        this.id = id;
+    }
     public record Position(int x, int y){}
 }
@@ -0,0 +1,242 @@
+package core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the game loop on two clocks: simulation ticks at a fixed step, and rendered
+ * frames at a target rate (or as fast as possible when uncapped).
+ *
+ * Simulation is never skipped - if the loop falls behind, the missed ticks run back to
+ * back and rendering is skipped until it catches up (only a stall of many ticks, like a
+ * debugger pause, gives up on the lost wall time). When the loop is ahead it sleeps
+ * until the next deadline: parkNanos for the bulk of the wait, then yields for the last
+ * stretch, since park can oversleep by a millisecond or more.
+ *
+ * Also keeps per-phase cost, achieved FPS and frame jitter for display/logging.
+ */
+public final class FramePacer {
+    public static final int UNCAPPED = 0;
+
+    public enum Phase { SIMULATION, RENDER, SLEEP }
+
+    private static final long SPIN_THRESHOLD_NS = 1_500_000L; // yield instead of park below this
+    private static final int MAX_SKIPPED_FRAMES = 5;           // render at least every N+1 loops
+    private static final int MAX_BACKLOG_TICKS = 10;          // beyond this, drop wall time (stalls, debugger)
+    private static final int WINDOW = 128;                    // frames kept for FPS / jitter
+    private static final double COST_SMOOTHING = 0.1;
+
+    private final long simStepNs;
+    private long frameIntervalNs;
+
+    private long nextTickNs;
+    private long nextFrameNs;
+    private int skippedInRow;
+    private long skippedFrames;
+    private long droppedTicks;
+
+    private final long[] frameTimes = new long[WINDOW]; // ring of render timestamps
+    private int frameCount;
+    private final double[] phaseCostNs = new double[Phase.values().length];
+    private final long[] phaseStart = new long[Phase.values().length];
+
+    public FramePacer(long simStepMs, int targetFps) {
+        this.simStepNs = simStepMs * 1_000_000L;
+        setTargetFps(targetFps);
+        reset();
+    }
+
+    /** Frames per second to aim for, or {@link #UNCAPPED}. */
+    public void setTargetFps(int targetFps) {
+        if (targetFps < 0) {
+            throw new IllegalArgumentException("Target FPS cannot be negative: " + targetFps);
+        }
+        frameIntervalNs = targetFps == UNCAPPED ? 0L : 1_000_000_000L / targetFps;
+    }
+
+    public int targetFps() {
+        return frameIntervalNs == 0L ? UNCAPPED : (int) (1_000_000_000L / frameIntervalNs);
+    }
+
+    /** Start both clocks from now, e.g. after a loading screen. */
+    public void reset() {
+        long now = System.nanoTime();
+        nextTickNs = now;
+        nextFrameNs = now;
+        skippedInRow = 0;
+        frameCount = 0;
+    }
+
+    /** Number of simulation ticks due since the last call; run them all before rendering. */
+    public int ticksDue() {
+        long now = System.nanoTime();
+        if (now < nextTickNs) {
+            return 0;
+        }
+        long due = (now - nextTickNs) / simStepNs + 1;
+        if (due > MAX_BACKLOG_TICKS) {
+            // too far behind to ever catch up smoothly; forget the lost time
+            droppedTicks += due - MAX_BACKLOG_TICKS;
+            nextTickNs = now - (MAX_BACKLOG_TICKS - 1) * simStepNs;
+            due = MAX_BACKLOG_TICKS;
+        }
+        nextTickNs += due * simStepNs;
+        return (int) due;
+    }
+
+    /**
+     * End of the time slot of one tick in the batch {@link #ticksDue} just returned, given
+     * how many of the batch are left to run including that one. Input from before this
+     * belongs to that tick.
+     */
+    public long tickDeadlineNs(int remainingInBatch) {
+        return nextTickNs - (remainingInBatch - 1) * simStepNs;
+    }
+
+    /**
+     * Whether to render this loop. False when the next frame isn't due yet, or when the
+     * simulation is still behind (so the time goes to catching up instead).
+     */
+    public boolean shouldRender() {
+        if (!frameDue()) {
+            return false;
+        }
+        boolean behind = System.nanoTime() - nextTickNs >= simStepNs;
+        if (behind && skippedInRow < MAX_SKIPPED_FRAMES) {
+            skippedInRow += 1;
+            skippedFrames += 1;
+            return false;
+        }
+        return true;
+    }
+
+    /** Whether the next frame's deadline has passed (always, when uncapped). */
+    public boolean frameDue() {
+        return frameIntervalNs == 0 || System.nanoTime() >= nextFrameNs;
+    }
+
+    /** Record that a frame was presented. */
+    public void frameRendered() {
+        long now = System.nanoTime();
+        skippedInRow = 0;
+        frameTimes[frameCount % WINDOW] = now;
+        frameCount += 1;
+        if (frameIntervalNs > 0) {
+            nextFrameNs += frameIntervalNs;
+            if (nextFrameNs < now) {
+                nextFrameNs = now + frameIntervalNs; // don't burst to make up missed frames
+            }
+        }
+    }
+
+    /** Sleep until the next tick or frame deadline, whichever comes first. */
+    public void sleepUntilNextDeadline() {
+        if (frameIntervalNs == 0) {
+            return; // uncapped: render again right away
+        }
+        sleepUntil(Math.min(nextTickNs, nextFrameNs));
+    }
+
+    /** Sleep until the next simulation tick is due (simulation thread, when rendering is separate). */
+    public void sleepUntilNextTick() {
+        sleepUntil(nextTickNs);
+    }
+
+    /** Sleep until the next frame is due; returns at once when uncapped (render thread). */
+    public void sleepUntilNextFrame() {
+        if (frameIntervalNs == 0) {
+            return;
+        }
+        sleepUntil(nextFrameNs);
+    }
+
+    private void sleepUntil(long deadline) {
+        begin(Phase.SLEEP);
+        long remaining = deadline - System.nanoTime();
+        while (remaining > SPIN_THRESHOLD_NS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NS);
+            remaining = deadline - System.nanoTime();
+        }
+        while (remaining > 0) {
+            Thread.yield();
+            remaining = deadline - System.nanoTime();
+        }
+        end(Phase.SLEEP);
+    }
+
+    public void begin(Phase phase) {
+        phaseStart[phase.ordinal()] = System.nanoTime();
+    }
+
+    public void end(Phase phase) {
+        int i = phase.ordinal();
+        double cost = System.nanoTime() - phaseStart[i];
+        phaseCostNs[i] = phaseCostNs[i] == 0 ? cost : phaseCostNs[i] + (cost - phaseCostNs[i]) * COST_SMOOTHING;
+    }
+
+    /** Smoothed cost of one pass through a phase, in milliseconds. */
+    public double phaseMs(Phase phase) {
+        return phaseCostNs[phase.ordinal()] / 1_000_000.0;
+    }
+
+    /** Frames actually presented per second over the recent window. */
+    public double achievedFps() {
+        int n = Math.min(frameCount, WINDOW);
+        if (n < 2) {
+            return 0.0;
+        }
+        long newest = frameTimes[(frameCount - 1) % WINDOW];
+        long oldest = frameTimes[(frameCount - n) % WINDOW];
+        return (n - 1) * 1_000_000_000.0 / Math.max(1L, newest - oldest);
+    }
+
+    /** Standard deviation of the interval between presented frames, in milliseconds. */
+    public double jitterMs() {
+        int n = Math.min(frameCount, WINDOW);
+        if (n < 3) {
+            return 0.0;
+        }
+        double sum = 0;
+        double sumSq = 0;
+        for (int k = frameCount - n + 1; k < frameCount; k++) {
+            double interval = frameTimes[k % WINDOW] - frameTimes[(k - 1) % WINDOW];
+            sum += interval;
+            sumSq += interval * interval;
+        }
+        int count = n - 1;
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0.0, sumSq / count - mean * mean)) / 1_000_000.0;
+    }
+
+    public long skippedFrames() {
+        return skippedFrames;
+    }
+
+    public long droppedTicks() {
+        return droppedTicks;
+    }
+
+    public String summary() {
+        String target = frameIntervalNs == 0 ? "uncapped" : targetFps() + " fps target";
+        return String.format("%.1f fps (%s), jitter %.2f ms, sim %.2f ms, render %.2f ms, sleep %.2f ms, "
+                        + "%d frames skipped, %d ticks dropped",
+                achievedFps(), target, jitterMs(), phaseMs(Phase.SIMULATION), phaseMs(Phase.RENDER),
+                phaseMs(Phase.SLEEP), skippedFrames, droppedTicks);
+    }
+
+    /** "30", "60", "120" or "uncapped"/"0"; anything unparsable falls back to the default. */
+    public static int parseTargetFps(String value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        if (value.equalsIgnoreCase("uncapped")) {
+            return UNCAPPED;
+        }
+        try {
+            int fps = Integer.parseInt(value.trim());
+            return fps >= 0 ? fps : fallback;
+        } catch (NumberFormatException e) {
+            System.err.println("[Pacer] Ignoring bad target FPS: " + value);
+            return fallback;
+        }
+    }
+}
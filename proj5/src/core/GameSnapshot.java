@@ -0,0 +1,50 @@
+package core;
+
+import java.util.List;
+
+/**
+ * Plain-data copy of everything needed to resume a session: the seed (the world itself is
+ * regenerated from it), the avatar, inventory, NPCs, ground items, corpses and lighting.
+ * Built on the game thread, then handed to {@link SnapshotCodec} for writing.
+ */
+public record GameSnapshot(long seed,
+                           AvatarState avatar,
+                           List<StackState> inventory,
+                           List<NpcState> npcs,
+                           List<DropState> drops,
+                           List<CorpseState> corpses,
+                           long lightSurgeElapsedMs,
+                           ControlState control) {
+
+    public GameSnapshot {
+        inventory = List.copyOf(inventory);
+        npcs = List.copyOf(npcs);
+        drops = List.copyOf(drops);
+        corpses = List.copyOf(corpses);
+    }
+
+    /**
+     * Input/movement bookkeeping that the next tick depends on. Needed so a restored
+     * checkpoint continues exactly like the original run (replay seeking).
+     */
+    public record ControlState(long tick, int previousKeys, char currentDirection, int ticksSinceLastMove,
+                               boolean inventoryVisible, boolean awaitingQuit) {
+        public static final ControlState INITIAL = new ControlState(0L, 0, (char) 0, 0, false, false);
+    }
+
+    public record AvatarState(int x, int y, int lives, int health, int invulnerability, char facing) { }
+
+    /** One occupied inventory slot, item referenced by its string id. */
+    public record StackState(int slot, String itemId, int quantity) { }
+
+    /**
+     * Full NPC simulation state including its RNG counter, so a restored NPC makes the
+     * same decisions it would have made had the session never been saved.
+     */
+    public record NpcState(int x, int y, int facing, int variant, int health, int invulnerability,
+                           int aiState, int phase, long rngState) { }
+
+    public record DropState(String itemId, int quantity, int x, int y) { }
+
+    public record CorpseState(int x, int y) { }
+}
@@ -80,6 +80,18 @@ public class HealthComponent {
         }
     }
 
+    public int invulnerabilityRemaining() {
+        return invulnerabilityRemaining;
+    }
+
+    /**
+     * Restore saved values directly (loading a save); does not fire death callbacks.
+     */
+    public void restoreState(int current, int invulnerabilityRemaining) {
+        this.current = Math.max(0, Math.min(max, current));
+        this.invulnerabilityRemaining = Math.max(0, invulnerabilityRemaining);
+    }
+
     public void resetInvulnerability() {
         invulnerabilityRemaining = 0;
     }
@@ -0,0 +1,58 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Collects {@link TickInput}s from the live game loop into an {@link InputRecording}.
+ * Idle ticks cost nothing; only key-mask changes and typed characters are stored.
+ */
+public class InputRecorder {
+    private final long seed;
+    private final byte[] startSnapshot;
+    private long[] ticks = new long[256];
+    private byte[] types = new byte[256];
+    private int[] values = new int[256];
+    private int size = 0;
+    private int lastKeys = 0;
+    private long nextTick = 0;
+
+    /**
+     * @param startTick     tick the session starts at (non-zero when resuming a save)
+     * @param startSnapshot encoded snapshot the session starts from, or null for a fresh world
+     */
+    public InputRecorder(long seed, long startTick, byte[] startSnapshot) {
+        this.seed = seed;
+        this.nextTick = startTick;
+        this.startSnapshot = startSnapshot;
+    }
+
+    public void record(long tick, TickInput input) {
+        if (input.keys() != lastKeys) {
+            add(tick, InputRecording.EVENT_KEYS, input.keys());
+            lastKeys = input.keys();
+        }
+        String typed = input.typed();
+        for (int i = 0; i < typed.length(); i++) {
+            add(tick, InputRecording.EVENT_TYPED, typed.charAt(i));
+        }
+        nextTick = tick + 1;
+    }
+
+    private void add(long tick, byte type, int value) {
+        if (size == ticks.length) {
+            int capacity = size * 2;
+            ticks = Arrays.copyOf(ticks, capacity);
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        ticks[size] = tick;
+        types[size] = type;
+        values[size] = value;
+        size++;
+    }
+
+    public InputRecording finish() {
+        return new InputRecording(seed, startSnapshot, Arrays.copyOf(ticks, size),
+                Arrays.copyOf(types, size), Arrays.copyOf(values, size), nextTick);
+    }
+}
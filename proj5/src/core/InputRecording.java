@@ -0,0 +1,162 @@
+package core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Immutable, tick-stamped input log for one session. Only changes are stored: a KEYS
+ * event whenever the held-key mask changes, and a TYPED event per typed character.
+ * Sessions start either from a fresh world (seed) or from an embedded save snapshot.
+ *
+ * File layout: int magic 'BYOR', short version, long seed, int snapshotLength (0 = none),
+ * snapshot bytes, long endTick, int eventCount, then per event (long tick, byte type, int value).
+ */
+public final class InputRecording {
+    private static final int MAGIC = 0x42594F52; // "BYOR"
+    private static final int VERSION = 1;
+    private static final int EVENT_BYTES = 13; // long tick, byte type, int value
+
+    static final byte EVENT_KEYS = 0;
+    static final byte EVENT_TYPED = 1;
+
+    private final long seed;
+    private final byte[] startSnapshot;
+    private final long[] ticks;
+    private final byte[] types;
+    private final int[] values;
+    private final long endTick;
+
+    InputRecording(long seed, byte[] startSnapshot, long[] ticks, byte[] types, int[] values, long endTick) {
+        this.seed = seed;
+        this.startSnapshot = startSnapshot;
+        this.ticks = ticks;
+        this.types = types;
+        this.values = values;
+        this.endTick = endTick;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /** Encoded {@link GameSnapshot} the session started from, or null for a fresh world. */
+    byte[] startSnapshot() {
+        return startSnapshot;
+    }
+
+    /** Number of ticks the original session simulated. */
+    public long endTick() {
+        return endTick;
+    }
+
+    public int eventCount() {
+        return ticks.length;
+    }
+
+    /**
+     * Input for a single tick. O(log events) so seeking doesn't need to walk the log.
+     */
+    public TickInput inputAt(long tick) {
+        int first = firstEventAtOrAfter(tick);
+
+        // held keys = last KEYS event at or before this tick
+        int keys = 0;
+        int lastAtOrBefore = first;
+        while (lastAtOrBefore < ticks.length && ticks[lastAtOrBefore] == tick) {
+            lastAtOrBefore++;
+        }
+        for (int i = lastAtOrBefore - 1; i >= 0; i--) {
+            if (types[i] == EVENT_KEYS) {
+                keys = values[i];
+                break;
+            }
+        }
+
+        StringBuilder typed = null;
+        for (int i = first; i < ticks.length && ticks[i] == tick; i++) {
+            if (types[i] == EVENT_TYPED) {
+                if (typed == null) {
+                    typed = new StringBuilder();
+                }
+                typed.append((char) values[i]);
+            }
+        }
+        return new TickInput(keys, typed == null ? "" : typed.toString());
+    }
+
+    private int firstEventAtOrAfter(long tick) {
+        int idx = Arrays.binarySearch(ticks, tick);
+        if (idx < 0) {
+            return -idx - 1;
+        }
+        while (idx > 0 && ticks[idx - 1] == tick) {
+            idx--;
+        }
+        return idx;
+    }
+
+    public void write(Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + ticks.length * EVENT_BYTES);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+        out.writeInt(startSnapshot == null ? 0 : startSnapshot.length);
+        if (startSnapshot != null) {
+            out.write(startSnapshot);
+        }
+        out.writeLong(endTick);
+        out.writeInt(ticks.length);
+        for (int i = 0; i < ticks.length; i++) {
+            out.writeLong(ticks[i]);
+            out.writeByte(types[i]);
+            out.writeInt(values[i]);
+        }
+        Files.write(path, bytes.toByteArray());
+    }
+
+    public static InputRecording read(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay file: " + path);
+        }
+        int version = in.readShort();
+        if (version > VERSION) {
+            throw new IOException("Replay version " + version + " is newer than supported " + VERSION);
+        }
+        long seed = in.readLong();
+        int snapshotLength = in.readInt();
+        if (snapshotLength < 0 || snapshotLength > in.available()) {
+            throw new IOException("Bad snapshot length " + snapshotLength);
+        }
+        byte[] snapshot = null;
+        if (snapshotLength > 0) {
+            snapshot = new byte[snapshotLength];
+            in.readFully(snapshot);
+        }
+        long endTick = in.readLong();
+        int count = in.readInt();
+        if (count < 0 || count > in.available() / EVENT_BYTES) {
+            throw new IOException("Bad event count " + count);
+        }
+        long[] ticks = new long[count];
+        byte[] types = new byte[count];
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            ticks[i] = in.readLong();
+            types[i] = in.readByte();
+            values[i] = in.readInt();
+            // inputAt binary-searches the ticks
+            if (ticks[i] < 0 || (i > 0 && ticks[i] < ticks[i - 1])) {
+                throw new IOException("Event " + i + " out of order at tick " + ticks[i]);
+            }
+        }
+        return new InputRecording(seed, snapshot, ticks, types, values, endTick);
+    }
+}
@@ -0,0 +1,127 @@
+package core;
+
+import render.StdDrawWindow;
+
+import javax.swing.JFrame;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowFocusListener;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keyboard input captured as events instead of sampled. The AWT thread only timestamps each
+ * press, release and typed character onto a lock-free queue; the simulation drains it one
+ * tick at a time with {@link #poll}, taking exactly the events that arrived before that
+ * tick's deadline.
+ *
+ * A tick sees a key as down if it was held at the deadline or pressed at any point during
+ * the tick, so taps shorter than a tick still register and the simulation's own edge
+ * detection (previous vs current keys) keeps working. Because events carry their own time,
+ * a burst of catch-up ticks after a slow frame still gets each press in the tick it
+ * happened in.
+ *
+ * Replaces StdDraw's key listener on the window, so all keyboard reads go through here.
+ */
+public final class InputSystem implements KeyListener, WindowFocusListener {
+    private enum Kind { PRESSED, RELEASED, TYPED, RELEASE_ALL }
+
+    private record KeyInput(Kind kind, int keyCode, char ch, long nanos) { }
+
+    private final ConcurrentLinkedQueue<KeyInput> events = new ConcurrentLinkedQueue<>();
+    private JFrame frame;
+
+    // Consumer side only
+    private int held;    // TickInput key mask after the last drained event
+    private int pressed; // keys that went down since the last poll, even if already up again
+    private final StringBuilder typed = new StringBuilder();
+
+    /** Listen to this window (StdDraw's, recreated by setCanvasSize) instead of StdDraw. */
+    public void attach(JFrame window) {
+        if (window == frame) {
+            return;
+        }
+        if (frame != null) {
+            frame.removeKeyListener(this);
+            frame.removeWindowFocusListener(this);
+        }
+        frame = window;
+        window.removeKeyListener((KeyListener) StdDrawWindow.listener());
+        window.addKeyListener(this);
+        window.addWindowFocusListener(this);
+    }
+
+    /** Everything that happened up to {@code untilNanos} (System.nanoTime), as one tick's input. */
+    public TickInput poll(long untilNanos) {
+        drain(untilNanos);
+        TickInput input = new TickInput(held | pressed, typed.toString());
+        pressed = 0;
+        typed.setLength(0);
+        return input;
+    }
+
+    /** Next typed character, or 0 if there is none yet. For menus, which don't run on ticks. */
+    public char nextTyped() {
+        drain(Long.MAX_VALUE);
+        if (typed.isEmpty()) {
+            return 0;
+        }
+        char c = typed.charAt(0);
+        typed.deleteCharAt(0);
+        return c;
+    }
+
+    private void drain(long untilNanos) {
+        for (KeyInput e = events.peek(); e != null && e.nanos() - untilNanos <= 0; e = events.peek()) {
+            events.poll();
+            switch (e.kind()) {
+                case PRESSED -> {
+                    held |= mask(e.keyCode());
+                    pressed |= mask(e.keyCode());
+                }
+                case RELEASED -> held &= ~mask(e.keyCode());
+                case TYPED -> typed.append(e.ch());
+                case RELEASE_ALL -> held = 0;
+            }
+        }
+    }
+
+    private static int mask(int keyCode) {
+        return switch (keyCode) {
+            case KeyEvent.VK_W -> TickInput.KEY_W;
+            case KeyEvent.VK_A -> TickInput.KEY_A;
+            case KeyEvent.VK_S -> TickInput.KEY_S;
+            case KeyEvent.VK_D -> TickInput.KEY_D;
+            case KeyEvent.VK_SHIFT -> TickInput.KEY_SHIFT;
+            case KeyEvent.VK_V -> TickInput.KEY_INVENTORY;
+            default -> 0;
+        };
+    }
+
+    // AWT event thread from here down: timestamp and queue, nothing else
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        events.offer(new KeyInput(Kind.PRESSED, e.getKeyCode(), (char) 0, System.nanoTime()));
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        events.offer(new KeyInput(Kind.RELEASED, e.getKeyCode(), (char) 0, System.nanoTime()));
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+        events.offer(new KeyInput(Kind.TYPED, 0, e.getKeyChar(), System.nanoTime()));
+    }
+
+    @Override
+    public void windowGainedFocus(WindowEvent e) {
+    }
+
+    // Releases that happen while another window has focus never arrive; don't leave keys stuck
+    @Override
+    public void windowLostFocus(WindowEvent e) {
+        events.offer(new KeyInput(Kind.RELEASE_ALL, 0, (char) 0, System.nanoTime()));
+    }
+}
@@ -1,13 +1,37 @@
 package core;
 
+import java.nio.file.Path;
+
 public class Main {
     public static void main(String[] args){
         Engine engine = new Engine();
-        if (args.length > 0) {
-            //Probably going to get rid of this - was for replay but its too hard to implement with AI
+        if (args.length > 0 && args[0].equals("--replay")) {
+            // --replay <file> [--fast] [--seek <tick>]  (fast = headless, no pacing)
+            String file = args.length > 1 ? args[1] : Engine.RECORDING_FILE;
+            boolean fast = false;
+            long seekTo = -1L;
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--fast")) {
+                    fast = true;
+                } else if (args[i].equals("--seek") && i + 1 < args.length) {
+                    seekTo = parseTick(args[++i]);
+                }
+            }
+            engine.replay(Path.of(file), !fast, seekTo);
+        } else if (args.length > 0) {
+            // old-style keystroke strings, e.g. "n123sddw"
             engine.interactWithInputString(args[0]);
         } else {
             engine.interactWithKeyboard();
         }
     }
+
+    private static long parseTick(String arg) {
+        try {
+            return Math.max(0L, Long.parseLong(arg));
+        } catch (NumberFormatException e) {
+            System.err.println("[Replay] Ignoring bad --seek tick: " + arg);
+            return -1L;
+        }
+    }
 }
@@ -1,32 +1,309 @@
 package core;
-import javax.sound.sampled.*;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
-
+/**
+ * Streams background music from disk instead of decoding whole files into Clips. A single
+ * background thread reads each track a block at a time into fixed buffers and writes it to
+ * one SourceDataLine, so memory stays the same for a one-minute loop or a one-hour one.
+ *
+ * Loops are gapless: at the end of the file the stream is reopened and the next block
+ * carries on from its first sample. Switching tracks crossfades the old one out while the
+ * new one fades in. Callers only post commands to a queue; opening files and the device
+ * happens on the music thread, so starting or switching music never stalls a frame.
+ */
 public class MusicPlayer {
-    private Clip clip;
+    public static final int DEFAULT_FADE_MS = 1500;
+
+    private static final int SAMPLE_RATE = 44_100;
+    private static final int BLOCK_FRAMES = 2048;       // ~46 ms read and mixed per pass
+    private static final int LINE_BUFFER_FRAMES = 8192; // ~190 ms queued in the device
+    private static final AudioFormat OUTPUT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+
+    /** path == null means stop everything. */
+    private record Command(String path, boolean loop, int fadeMs, Runnable onComplete) { }
 
+    private final float volume;
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private volatile boolean disabled;
+    private Thread thread;
+
+    // Music thread only
+    private SourceDataLine line;
+    private final List<Track> tracks = new ArrayList<>();
+    private final float[] block = new float[BLOCK_FRAMES * 2];
+    private final float[] mix = new float[BLOCK_FRAMES * 2];
+    private final byte[] out = new byte[BLOCK_FRAMES * OUTPUT.getFrameSize()];
+
+    /** @param gainDb output level, e.g. -15 for background music under effects */
+    public MusicPlayer(float gainDb) {
+        this.volume = (float) Math.pow(10.0, gainDb / 20.0);
+    }
+
+    /** Loop a track forever, crossfading from whatever is playing. */
     public void playLoop(String filepath) {
+        post(new Command(filepath, true, DEFAULT_FADE_MS, null));
+    }
+
+    /**
+     * Play a track once. {@code onComplete} runs on the music thread when it reaches its
+     * end - not when it's stopped or replaced early.
+     */
+    public void playOnce(String filepath, int fadeMs, Runnable onComplete) {
+        post(new Command(filepath, false, fadeMs, onComplete));
+    }
+
+    /** Fade everything out over fadeMs (0 cuts at once). */
+    public void stop(int fadeMs) {
+        post(new Command(null, false, fadeMs, null));
+    }
+
+    private synchronized void post(Command command) {
+        if (disabled) {
+            return;
+        }
+        commands.offer(command);
+        if (thread == null) {
+            thread = new Thread(this::run, "music");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
         try {
-            AudioInputStream audio = AudioSystem.getAudioInputStream(new File(filepath));
-            clip = AudioSystem.getClip();
-            clip.open(audio);
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
-            clip.start();
+            line = AudioSystem.getSourceDataLine(OUTPUT);
+            line.open(OUTPUT, LINE_BUFFER_FRAMES * OUTPUT.getFrameSize());
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("[Audio] No audio output device available. Music disabled.");
+            disabled = true;
+            commands.clear();
+            return;
+        }
+        while (true) {
+            for (Command c = commands.poll(); c != null; c = commands.poll()) {
+                apply(c);
+            }
+            if (tracks.isEmpty()) {
+                LockSupport.park(this); // idle until the next command
+                continue;
+            }
+            mixBlock();
+            line.write(out, 0, out.length); // paced by the device
+        }
+    }
 
-            FloatControl volume = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            volume.setValue(-20.0f);
+    private void apply(Command c) {
+        int fadeFrames = (int) ((long) c.fadeMs() * SAMPLE_RATE / 1000L);
+        for (Track t : tracks) {
+            t.fadeTo(0f, fadeFrames);
+            t.onComplete = null; // superseded: reaching EOF during the fade isn't finishing
+        }
+        if (c.path() == null) {
+            return;
+        }
+        Track next = Track.open(c.path(), c.loop(), c.onComplete());
+        if (next != null) {
+            next.gain = fadeFrames == 0 ? 1f : 0f;
+            next.fadeTo(1f, fadeFrames);
+            tracks.add(next);
+        }
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void mixBlock() {
+        Arrays.fill(mix, 0f);
+        for (int i = tracks.size() - 1; i >= 0; i--) {
+            Track t = tracks.get(i);
+            int frames = t.read(block, BLOCK_FRAMES);
+            for (int f = 0; f < frames; f++) {
+                float g = t.nextGain() * volume;
+                mix[f * 2] += block[f * 2] * g;
+                mix[f * 2 + 1] += block[f * 2 + 1] * g;
+            }
+            if (frames < BLOCK_FRAMES || t.fadedOut()) {
+                tracks.remove(i);
+                t.close();
+                if (frames < BLOCK_FRAMES && t.onComplete != null) {
+                    t.onComplete.run();
+                }
+            }
+        }
+        for (int i = 0; i < mix.length; i++) {
+            int s = (int) (Math.max(-1f, Math.min(1f, mix[i])) * 32767f);
+            out[i * 2] = (byte) s;
+            out[i * 2 + 1] = (byte) (s >> 8);
         }
     }
 
-    public void stop() {
-        if (clip != null && clip.isRunning()){
-            clip.stop();
-            clip.close();
+    /**
+     * One open file, decoded a chunk at a time and resampled to the output rate. The last
+     * source frame of each chunk is kept so interpolation runs across chunk (and loop)
+     * boundaries without a click.
+     */
+    private static final class Track {
+        private static final int CHUNK_FRAMES = 4096;
+
+        final String path;
+        final boolean loop;
+        Runnable onComplete; // cleared once the track is stopped or replaced
+        private AudioInputStream in;
+        private final int channels;
+        private final double step; // source frames per output frame
+        private final byte[] bytes;
+        private final float[] left = new float[CHUNK_FRAMES + 1];
+        private final float[] right = new float[CHUNK_FRAMES + 1];
+        private int count;
+        private double pos;
+
+        float gain;
+        private float target;
+        private float gainStep;
+
+        private Track(String path, boolean loop, Runnable onComplete, AudioInputStream in) {
+            this.path = path;
+            this.loop = loop;
+            this.onComplete = onComplete;
+            this.in = in;
+            this.channels = in.getFormat().getChannels();
+            this.step = in.getFormat().getSampleRate() / SAMPLE_RATE;
+            this.bytes = new byte[CHUNK_FRAMES * channels * 2];
+        }
+
+        static Track open(String path, boolean loop, Runnable onComplete) {
+            AudioInputStream in = openPcm(path);
+            return in == null ? null : new Track(path, loop, onComplete, in);
+        }
+
+        // The file as 16-bit little-endian PCM at its own rate and channel count
+        private static AudioInputStream openPcm(String path) {
+            try {
+                AudioInputStream source = AudioSystem.getAudioInputStream(new File(path));
+                AudioFormat f = source.getFormat();
+                int channels = Math.min(2, f.getChannels());
+                AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, f.getSampleRate(), 16,
+                        channels, channels * 2, f.getSampleRate(), false);
+                return AudioSystem.getAudioInputStream(pcm, source);
+            } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+                System.err.println("[Audio] Unable to stream: " + path);
+                return null;
+            }
+        }
+
+        void fadeTo(float value, int frames) {
+            target = value;
+            if (frames <= 0) {
+                gain = value;
+                gainStep = 0f;
+            } else {
+                gainStep = Math.abs(value - gain) / frames;
+            }
+        }
+
+        float nextGain() {
+            if (gain < target) {
+                gain = Math.min(target, gain + gainStep);
+            } else if (gain > target) {
+                gain = Math.max(target, gain - gainStep);
+            }
+            return gain;
+        }
+
+        boolean fadedOut() {
+            return target == 0f && gain == 0f;
+        }
+
+        /** Fill up to {@code frames} interleaved stereo frames; fewer means the track ended. */
+        int read(float[] dest, int frames) {
+            int written = 0;
+            while (written < frames) {
+                int i0 = (int) pos;
+                if (i0 + 1 >= count) {
+                    if (!refill()) {
+                        break;
+                    }
+                    continue;
+                }
+                float t = (float) (pos - i0);
+                dest[written * 2] = left[i0] + (left[i0 + 1] - left[i0]) * t;
+                dest[written * 2 + 1] = right[i0] + (right[i0 + 1] - right[i0]) * t;
+                pos += step;
+                written += 1;
+            }
+            return written;
+        }
+
+        private boolean refill() {
+            if (count > 0) {
+                left[0] = left[count - 1];
+                right[0] = right[count - 1];
+                pos -= count - 1;
+                count = 1;
+            }
+            int frames = readFrames(count);
+            if (frames <= 0 && loop && reopen()) {
+                frames = readFrames(count); // gapless: next block continues from the start
+            }
+            if (frames <= 0) {
+                return false;
+            }
+            count += frames;
+            return true;
+        }
+
+        private int readFrames(int at) {
+            if (in == null) {
+                return -1;
+            }
+            int frameBytes = channels * 2;
+            int n;
+            try {
+                n = in.readNBytes(bytes, 0, bytes.length); // at is 0 or 1, so a chunk always fits
+            } catch (IOException e) {
+                System.err.println("[Audio] Stream error in " + path + ": " + e.getMessage());
+                return -1;
+            }
+            int frames = n / frameBytes;
+            for (int f = 0; f < frames; f++) {
+                int i = f * frameBytes;
+                float l = (short) ((bytes[i] & 0xFF) | (bytes[i + 1] << 8)) / 32768f;
+                float r = channels == 2 ? (short) ((bytes[i + 2] & 0xFF) | (bytes[i + 3] << 8)) / 32768f : l;
+                left[at + f] = l;
+                right[at + f] = r;
+            }
+            return frames;
+        }
+
+        private boolean reopen() {
+            close();
+            in = openPcm(path);
+            return in != null;
+        }
+
+        void close() {
+            if (in == null) {
+                return;
+            }
+            try {
+                in.close();
+            } catch (IOException e) {
+                // nothing left to read anyway
+            }
+            in = null;
         }
     }
 }
@@ -1,199 +1,111 @@
 package core.NPC;
 
-import core.AiBehavior;
 import core.Direction;
 import core.Entity;
+import core.GameSnapshot;
 
-import tileengine.TETile;
+import tileengine.AnimationClip;
+import tileengine.DirectionalClips;
 import tileengine.Tileset;
+import utils.SplitMixRandom;
 
-import java.util.EnumMap;
 import java.util.Random;
-import java.util.Set;
 
 /**
- * Minimal NPC representation with random-walk behavior and sprite cycling.
- * Instances are updated by {@link NpcManager} and rendered directly by the engine
- * between the base and front tile layers.
+ * An NPC as seen from outside: position and facing live in its {@link core.TransformComponent},
+ * AI state in its {@link NpcBrain}, and both are stepped through {@link NpcManager}'s
+ * component stores. Animation isn't stepped at all: the NPC only exposes which clip it's
+ * playing and its phase, and the renderer evaluates the clip from the shared tick.
  */
 public class Npc extends Entity{
-    private final Random rng;
-    private int animFrame = 0;
-    private int animTick = 0;
-    private int moveTick = 0;
-    private final int animPhaseOffset;
-
-    private boolean attacking = false;
-
+    private final int variant;
+    private final NpcBrain brain;
 
     public final Tileset.NpcSpriteSet spriteSet;
+    private final DirectionalClips walkClips;
+    private final DirectionalClips attackClips;
 
-    private final EnumMap<State, AiBehavior> behaviors = new EnumMap<>(State.class);
-    private State state = State.IDLE;
-    private AiBehavior activeBehavior;
-
-    // Tunables for movement and animation pacing.
-    private static final int STEP_INTERVAL = 8;    // ticks between movement attempts
     private static final int ANIM_INTERVAL = 3;    // ticks between animation frames
+    /** How long the sprite takes to slide into a tile it just stepped onto. */
+    public static final int GLIDE_TICKS = NpcBrain.STEP_INTERVAL;
 
-    private double drawX;
-    private double drawY;
-
-    public void setDrawX(double x) { this.drawX = x; }
-    public void setDrawY(double y) { this.drawY = y; }
-
-    /**
-     * Nudge the render position toward the logical tile while snapping when close
-     * to avoid visible drift (e.g., appearing a tile above the actual blocker).
-     */
-    public void updateSmooth(double speed) {
-        drawX += (x - drawX) * speed;
-        drawY += (y - drawY) * speed;
-        
-    }
-
-    public Npc(int x, int y, Random rng, Tileset.NpcSpriteSet spriteSet, core.HealthComponent health) {
+    public Npc(int x, int y, SplitMixRandom rng, int variant, Tileset.NpcSpriteSet spriteSet,
+               core.HealthComponent health) {
         super(x, y, health);
-        this.rng = rng;
+        this.variant = variant;
         this.spriteSet = spriteSet;
-        behaviors.put(State.IDLE, new IdleBehavior());
-        behaviors.put(State.SEEK, new SeekBehavior());
-        behaviors.put(State.ATTACK, new AttackBehavior());
-        switchState(State.IDLE);
-        this.drawX = x;
-        this.drawY = y;
-        this.animPhaseOffset = rng.nextInt(ANIM_INTERVAL);
-        this.animFrame = rng.nextInt(spriteSet.walkUpFrames().length);
+        this.walkClips = DirectionalClips.of(spriteSet.walkUpFrames(), spriteSet.walkDownFrames(),
+                spriteSet.walkLeftFrames(), spriteSet.walkRightFrames(), ANIM_INTERVAL);
+        this.attackClips = DirectionalClips.of(spriteSet.attackUpFrames(), spriteSet.attackDownFrames(),
+                spriteSet.attackLeftFrames(), spriteSet.attackRightFrames(), ANIM_INTERVAL);
+        this.brain = new NpcBrain(this, rng, x, y);
+        brain.start();
     }
 
-    public int x() {
-        return x;
+    NpcBrain brain() {
+        return brain;
     }
 
-    public int y() {
-        return y;
-    }
-
-    public double drawX() {
-        return drawX;
-    }
-    public double drawY() {
-        return drawY;
+    public int variant() {
+        return variant;
     }
 
     /**
-     * Advance one tick of NPC simulation: possibly move and advance animation.
+     * Per-NPC stream so behaviors stay reproducible for a given world seed. Also rolls the
+     * NPC's loot when it dies, since its state is saved and it makes no decisions after.
      */
-    public void tick(WorldView view) {
-        moveTick += 1;
-        animTick += 1;
-
-
-
-        attacking = false;
-
-
-        State desiredState = selectState(view);
-        if (desiredState != state) {
-            switchState(desiredState);
-        }
-
-        activeBehavior.onTick(this, view);
-        Direction move = null;
-        if (moveTick >= STEP_INTERVAL) {
-            moveTick = 0;
-            move = activeBehavior.desiredMove();
-        }
-
-        if (move == null) {
-            updateAnimationFrame();
-            return;
-        }
-        int nx = x + move.dx;
-        int ny = y + move.dy;
-        if (view.isWalkable(nx, ny) && !view.isOccupied(nx, ny)) {
-            facing = move;
-            x = nx;
-            y = ny;
-            updateAnimationFrame();
-            return;
-        }
-        updateAnimationFrame();
+    public Random rng() {
+        return brain.rng;
     }
 
-
-    // Less than 2 - attack
-    // Less than 15 more than 2 - Seek
-    // More than 15 - Idle
-    private State selectState(WorldView view) {
-        int dx = Math.abs(view.avatarPosition().x() - x);
-        int dy = Math.abs(view.avatarPosition().y() - y);
-        int manhattan = dx + dy;
-        if (manhattan <= 2) {
-            return State.ATTACK;
-        }
-        if (manhattan < 15) {
-            return State.SEEK;
-        }
-        return State.IDLE;
+    public int phase() {
+        return brain.phase;
     }
 
+    /** Tile the NPC last stepped from; equal to its position until it first moves. */
+    public int fromX() {
+        return brain.fromX;
+    }
 
-    private void switchState(State next) {
-        state = next;
-        activeBehavior = behaviors.get(next);
-        animTick = rng.nextInt(ANIM_INTERVAL);
-        animFrame = rng.nextInt(frameCountForState(next));
-        activeBehavior.onEnterState(this);
-
+    public int fromY() {
+        return brain.fromY;
     }
 
+    /** Simulation tick of the last step, for gliding from {@link #fromX()}/{@link #fromY()}. */
+    public long lastMoveTick() {
+        return brain.lastMoveTick;
+    }
 
-    /**
-     * Current animation frame tile based on facing direction.
-     */
-    public TETile currentTile() {
-        TETile[] frames = attacking ? attackFramesForFacing() : walkFramesForFacing();
-        return frames[animFrame];
+    /** Clip for what the NPC is doing right now and which way it faces. */
+    public AnimationClip clip() {
+        return (brain.attacking ? attackClips : walkClips).facing(facing());
     }
 
     public void markAttacking() {
-        attacking = true;
+        brain.attacking = true;
     }
 
-    private void updateAnimationFrame() {
-        if ((animTick + animPhaseOffset) % ANIM_INTERVAL != 0) {
-            return;
-        }
-        animTick = 0;
-        int frameCount = attacking ? spriteSet.attackUpFrames().length : spriteSet.walkUpFrames().length;
-        animFrame = (animFrame + 1) % frameCount;
+    /** Capture everything the AI pass depends on so a save resumes this NPC exactly. */
+    public GameSnapshot.NpcState snapshot() {
+        int hp = health == null ? 0 : health.current();
+        int invuln = health == null ? 0 : health.invulnerabilityRemaining();
+        return new GameSnapshot.NpcState(x(), y(), facing().ordinal(), variant, hp, invuln,
+                brain.stateOrdinal(), brain.phase, brain.rng.state());
     }
 
-    private int frameCountForState(State next) {
-        return next == State.ATTACK ? spriteSet.attackUpFrames().length : spriteSet.walkUpFrames().length;
+    /** Whether a saved state can be restored: its enum ordinals must exist. */
+    public static boolean isRestorable(GameSnapshot.NpcState saved) {
+        return saved.facing() >= 0 && saved.facing() < Direction.values().length
+                && NpcBrain.isValidState(saved.aiState());
     }
 
-    private TETile[] walkFramesForFacing() {
-        return switch (facing) {
-            case UP -> spriteSet.walkUpFrames();
-            case DOWN -> spriteSet.walkDownFrames();
-            case LEFT -> spriteSet.walkLeftFrames();
-            case RIGHT -> spriteSet.walkRightFrames();
-        };
+    /** Inverse of {@link #snapshot()}; the NPC must have been built with the same variant. */
+    public void restore(GameSnapshot.NpcState saved) {
+        setPosition(saved.x(), saved.y());
+        setFacing(Direction.values()[saved.facing()]);
+        if (health != null) {
+            health.restoreState(saved.health(), saved.invulnerability());
+        }
+        brain.restore(saved, transform);
     }
-    private TETile[] attackFramesForFacing() {
-        return switch (facing) {
-
-            case UP -> spriteSet.attackUpFrames();
-            case DOWN -> spriteSet.attackDownFrames();
-            case LEFT -> spriteSet.attackLeftFrames();
-            case RIGHT -> spriteSet.attackRightFrames();
-    };
 }
-    private enum State {
-        IDLE,
-        SEEK,
-        ATTACK
-    }
-}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package core.NPC;
+
+import core.AiBehavior;
+import core.Direction;
+import core.GameSnapshot;
+import core.TransformComponent;
+import utils.SplitMixRandom;
+
+import java.util.EnumMap;
+
+/**
+ * AI component of an NPC: behavior state, its random stream and the pacing of its steps.
+ * Kept in {@link NpcManager}'s brain store and stepped by its AI pass, which pairs each
+ * brain with the NPC's {@link TransformComponent}. The {@link Npc} object only reads it.
+ */
+final class NpcBrain {
+    // Tunables for movement pacing
+    static final int STEP_INTERVAL = 8;    // ticks between movement attempts
+    private static final int PHASE_RANGE = 1024;
+    private static final long NEVER_MOVED = Long.MIN_VALUE / 2; // any glide from here is long over
+
+    enum State {
+        IDLE,
+        SEEK,
+        ATTACK
+    }
+
+    final Npc owner; // behaviors act on the NPC as a whole (damage source, facing)
+    final SplitMixRandom rng;
+    private final EnumMap<State, AiBehavior> behaviors = new EnumMap<>(State.class);
+    private State state = State.IDLE;
+    private AiBehavior activeBehavior;
+    /** Offset into the shared tick, so NPCs neither step nor animate in lockstep. */
+    int phase;
+    int fromX;
+    int fromY;
+    long lastMoveTick = NEVER_MOVED;
+    boolean attacking;
+
+    NpcBrain(Npc owner, SplitMixRandom rng, int x, int y) {
+        this.owner = owner;
+        this.rng = rng;
+        behaviors.put(State.IDLE, new IdleBehavior());
+        behaviors.put(State.SEEK, new SeekBehavior());
+        behaviors.put(State.ATTACK, new AttackBehavior());
+        this.phase = rng.nextInt(PHASE_RANGE);
+        this.fromX = x;
+        this.fromY = y;
+    }
+
+    /** Enter the initial state; separate from construction since behaviors act on the owner. */
+    void start() {
+        switchState(State.IDLE);
+    }
+
+    /**
+     * One tick of AI: pick a state and possibly move. Movement is attempted every
+     * STEP_INTERVAL ticks of the shared counter, offset by phase.
+     */
+    void tick(TransformComponent at, WorldView view, long tick) {
+        attacking = false;
+
+        State desiredState = selectState(at, view);
+        if (desiredState != state) {
+            switchState(desiredState);
+        }
+
+        activeBehavior.onTick(owner, view);
+        if (Math.floorMod(tick + phase, STEP_INTERVAL) != 0) {
+            return;
+        }
+        Direction move = activeBehavior.desiredMove();
+        if (move == null) {
+            return;
+        }
+        int nx = at.x() + move.dx;
+        int ny = at.y() + move.dy;
+        if (view.isWalkable(nx, ny) && !view.isOccupied(nx, ny)) {
+            at.setFacing(move);
+            fromX = at.x();
+            fromY = at.y();
+            at.moveTo(nx, ny);
+            lastMoveTick = tick;
+        }
+    }
+
+    // Less than 2 - attack
+    // Less than 15 more than 2 - Seek
+    // More than 15 - Idle
+    private State selectState(TransformComponent at, WorldView view) {
+        int dx = Math.abs(view.avatarPosition().x() - at.x());
+        int dy = Math.abs(view.avatarPosition().y() - at.y());
+        int manhattan = dx + dy;
+        if (manhattan <= 2) {
+            return State.ATTACK;
+        }
+        if (manhattan < 15) {
+            return State.SEEK;
+        }
+        return State.IDLE;
+    }
+
+    private void switchState(State next) {
+        state = next;
+        activeBehavior = behaviors.get(next);
+        activeBehavior.onEnterState(owner);
+    }
+
+    int stateOrdinal() {
+        return state.ordinal();
+    }
+
+    static boolean isValidState(int ordinal) {
+        return ordinal >= 0 && ordinal < State.values().length;
+    }
+
+    /** Inverse of what {@link Npc#snapshot()} saves from here. */
+    void restore(GameSnapshot.NpcState saved, TransformComponent at) {
+        switchState(State.values()[saved.aiState()]);
+        phase = saved.phase();
+        rng.setState(saved.rngState());
+        fromX = at.x();
+        fromY = at.y();
+        lastMoveTick = NEVER_MOVED;
+    }
+}
@@ -5,10 +5,15 @@ import core.Entity;
 
 import core.Avatar;
 import core.CombatService;
+import core.Entities;
+import core.TransformComponent;
+import core.ecs.ComponentStore;
 import edu.princeton.cs.algs4.StdDraw;
-import tileengine.TETile;
 import tileengine.Tileset;
+import core.GameSnapshot;
 import core.HealthComponent;
+import core.WorldMetadata;
+import utils.RngService;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -24,81 +29,151 @@ import java.nio.file.Path;
 
 /**
  * Central coordinator for NPC creation, updates, and rendering helpers.
+ *
+ * NPCs are entities of the session's {@link Entities}; their AI state is a {@link NpcBrain}
+ * in a store kept here. The brain store's packed order is spawn order, which is also the
+ * order NPCs tick (and claim tiles) in, so it stands in for a list of NPCs.
  */
 public class NpcManager {
+    private final RngService rngs;
+    /** Placement/variant stream; each NPC additionally gets its own stream for behavior. */
     private final Random rng;
-    private final List<Npc> npcs = new ArrayList<>();
+    private final Entities entities;
+    private final ComponentStore<TransformComponent> transforms;
+    private final ComponentStore<NpcBrain> brains;
     private final List<Corpse> corpses = new ArrayList<>();
     /** Quick membership check for existing NPC tiles. */
     private final Set<Entity.Position> npcPositions = new HashSet<>();
     private final CombatService combatService;
     private Consumer<Npc> deathHandler = npc -> {};
+    private WorldMetadata metadata;
 
     /** Direct lookup of NPCs by tile for hitbox-aware collision and queries. */
     private final java.util.Map<Entity.Position, List<Npc>> npcByTile = new java.util.HashMap<>();
 
     private static final int DEFAULT_NPC_COUNT = 60;
-
-    public NpcManager(Random rng, CombatService combatService) {
-        this.rng = rng;
+    private List<Integer> variants;
+
+    public NpcManager(RngService rngs, Entities entities, CombatService combatService) {
+        this.rngs = rngs;
+        this.rng = rngs.stream(RngService.Stream.NPC_SPAWN);
+        this.entities = entities;
+        this.transforms = entities.transforms();
+        this.brains = entities.registry().store();
         this.combatService = combatService;
     }
 
-    public List<Npc> npcs() {
-        return npcs;
+    public int npcCount() {
+        return brains.size();
+    }
+
+    /** The i-th living NPC, in tick order. */
+    public Npc npc(int i) {
+        return brains.valueAt(i).owner;
     }
 
     /**
      * Spawn a handful of NPCs on random floor tiles, avoiding the avatar's starting tile.
+     * Candidates come straight from the precomputed spawn cells, so each pick is O(1).
      */
-    public void spawn(TETile[][] world, int avoidX, int avoidY) {
-        npcs.clear();
-        npcByTile.clear();
-        corpses.clear();
+    public void spawn(WorldMetadata metadata, int avoidX, int avoidY) {
+        this.metadata = metadata;
+        clear();
         int attempts = 0;
-        while (npcs.size() < DEFAULT_NPC_COUNT && attempts < 500) {
+        while (brains.size() < DEFAULT_NPC_COUNT && attempts < 500) {
             attempts += 1;
-            int x = rng.nextInt(world.length);
-            int y = rng.nextInt(world[0].length);
-            if (!world[x][y].equals(Tileset.FLOOR)) {
-                continue;
+            int cell = metadata.randomSpawnCell(rng);
+            if (cell < 0) {
+                return;
             }
+            int x = metadata.cellX(cell);
+            int y = metadata.cellY(cell);
             if (x == avoidX && y == avoidY) {
                 continue;
             }
-            int variant = selectVariant();
-            HealthComponent health = new HealthComponent(3, 3, 0, 8);
-            Npc npc = new Npc(x, y, new Random(rng.nextLong()), Tileset.loadNpcSpriteSet(variant), health);
-            npc.setDrawX(x);
-            npc.setDrawY(y);
-            health.addDeathCallback(entity -> handleNpcDeath((Npc) entity));
-            combatService.register(npc);
-            npcs.add(npc);
-            addNpcPosition(new Entity.Position(x, y), npc);
+            addNpc(x, y, selectVariant());
         }
     }
 
+    private Npc addNpc(int x, int y, int variant) {
+        HealthComponent health = new HealthComponent(3, 3, 0, 8);
+        Npc npc = new Npc(x, y, rngs.npc(brains.size()), variant, Tileset.loadNpcSpriteSet(variant), health);
+        health.addDeathCallback(entity -> handleNpcDeath((Npc) entity));
+        entities.add(npc);
+        brains.put(npc.id(), npc.brain());
+        addNpcPosition(new Entity.Position(x, y), npc);
+        return npc;
+    }
+
     /**
-     * Advance all NPCs by one tick with simple collision against walls, avatar, and each other.
+     * Rebuild NPCs and corpses from a save instead of spawning fresh ones.
+     * Saved order is kept since NPCs tick (and claim tiles) in that order.
      */
-    public void tick(TETile[][] world, Avatar avatar) {
+    public void restore(WorldMetadata metadata, List<GameSnapshot.NpcState> saved,
+                        List<GameSnapshot.CorpseState> savedCorpses) {
+        this.metadata = metadata;
+        clear();
+        for (GameSnapshot.NpcState state : saved) {
+            Npc npc = addNpc(state.x(), state.y(), state.variant());
+            npc.restore(state);
+        }
+        for (GameSnapshot.CorpseState corpse : savedCorpses) {
+            corpses.add(new Corpse(corpse.x(), corpse.y(), Tileset.NPC_CORPSE));
+        }
+    }
+
+    private void clear() {
+        while (brains.size() > 0) {
+            entities.remove(npc(brains.size() - 1)); // from the end: nothing left to shift
+        }
+        npcByTile.clear();
+        corpses.clear();
+    }
+
+    public List<GameSnapshot.NpcState> snapshotNpcs() {
+        List<GameSnapshot.NpcState> states = new ArrayList<>(brains.size());
+        for (int i = 0; i < brains.size(); i++) {
+            states.add(npc(i).snapshot());
+        }
+        return states;
+    }
+
+    public List<GameSnapshot.CorpseState> snapshotCorpses() {
+        List<GameSnapshot.CorpseState> states = new ArrayList<>(corpses.size());
+        for (Corpse corpse : corpses) {
+            states.add(new GameSnapshot.CorpseState(corpse.x(), corpse.y()));
+        }
+        return states;
+    }
+
+    /**
+     * The AI system: advance every brain by one tick with simple collision against walls,
+     * avatar, and each other, moving the NPC's transform. {@code tick} is the engine's tick
+     * counter, which paces NPC steps.
+     */
+    public void tick(Avatar avatar, long tick) {
+        if (metadata == null) {
+            return;
+        }
         Entity.Position avatarPos = new Entity.Position(avatar.x(), avatar.y());
         Set<Entity.Position> occupied = buildOccupiedSet(avatarPos);
-        WorldView sharedView = new WorldView(world, avatar, occupied, combatService);
+        WorldView sharedView = new WorldView(metadata, avatar, occupied, combatService);
 
-        for (Npc npc : npcs) {
-            Entity.Position previous = new Entity.Position(npc.x(), npc.y());
-            removeNpcPosition(previous, npc);
+        for (int i = 0; i < brains.size(); i++) {
+            NpcBrain brain = brains.valueAt(i);
+            TransformComponent at = transforms.get(brains.entityAt(i));
+            Entity.Position previous = new Entity.Position(at.x(), at.y());
+            removeNpcPosition(previous, brain.owner);
 
             // Preserve the avatar's tile marker even when sharing a tile with this NPC.
             if (previous.equals(avatarPos)) {
                 occupied.add(avatarPos);
             }
 
-            npc.tick(sharedView);
+            brain.tick(at, sharedView, tick);
 
-            Entity.Position updated = new Entity.Position(npc.x(), npc.y());
-            addNpcPosition(updated, npc);
+            Entity.Position updated = new Entity.Position(at.x(), at.y());
+            addNpcPosition(updated, brain.owner);
         }
     }
 
@@ -113,13 +188,14 @@ public class NpcManager {
         // Avatar tile ALWAYS blocked
         occupied.add(avatarPos);
 
-        for (Npc npc : npcs) {
+        for (int i = 0; i < brains.size(); i++) {
+            TransformComponent at = transforms.get(brains.entityAt(i));
 
-            int dx = Math.abs(npc.x() - avatarPos.x());
-            int dy = Math.abs(npc.y() - avatarPos.y());
+            int dx = Math.abs(at.x() - avatarPos.x());
+            int dy = Math.abs(at.y() - avatarPos.y());
             int dist = dx + dy;
 
-            Entity.Position pos = new Entity.Position(npc.x(), npc.y());
+            Entity.Position pos = new Entity.Position(at.x(), at.y());
 
             // Far from the player → normal collision (1 NPC per tile)
             if (dist > 4) {
@@ -193,7 +269,15 @@ public class NpcManager {
         return variants.get(rng.nextInt(variants.size()));
     }
 
+    // Listed once; the asset folders don't change while the game runs
     private List<Integer> availableVariants() {
+        if (variants == null) {
+            variants = listVariants();
+        }
+        return variants;
+    }
+
+    private static List<Integer> listVariants() {
         List<Integer> variants = new ArrayList<>();
         Path npcRoot = Path.of("assets", "avatars", "NPC");
         try (var paths = Files.list(npcRoot)) {
@@ -214,9 +298,8 @@ public class NpcManager {
 
     private void handleNpcDeath(Npc npc) {
         removeNpcPosition(new Entity.Position(npc.x(), npc.y()), npc);
-        npcs.remove(npc);
         corpses.add(new Corpse(npc.x(), npc.y(), Tileset.NPC_CORPSE));
-        combatService.unregister(npc);
+        entities.remove(npc); // drops its transform, health and brain
         deathHandler.accept(npc);
     }
 
@@ -8,9 +8,6 @@ import java.util.*;
 public class SeekBehavior implements AiBehavior {
     private Direction desired;
 
-    // Static RNG for tie-breaking so SeekBehavior doesn't need NPC RNG
-    private static final Random RAND = new Random();
-
     @Override
     public void onEnterState(Npc owner) {
         desired = null;
@@ -27,11 +24,12 @@ public class SeekBehavior implements AiBehavior {
         // Copy all directions
         List<Direction> directions = new ArrayList<>(List.of(Direction.values()));
 
-        // Sort by squared Euclidean distance + tiny random jitter
+        // Sort by squared Euclidean distance + tiny random jitter (owner's stream keeps it seeded)
+        Random rand = owner.rng();
         directions.sort(Comparator.comparingInt(dir -> {
             int nx = owner.x() + dir.dx;
             int ny = owner.y() + dir.dy;
-            return heuristic(nx, ny, ax, ay) + RAND.nextInt(3);
+            return heuristic(nx, ny, ax, ay) + rand.nextInt(3);
         }));
 
         // Choose first valid move
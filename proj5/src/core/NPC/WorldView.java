@@ -1,22 +1,21 @@
 package core.NPC;
 
 import core.Entity;
-import tileengine.TETile;
-import tileengine.Tileset;
+import core.WorldMetadata;
 import java.util.Set;
 import core.Avatar;
 import core.CombatService;
 
 
 public class WorldView {
-    private final TETile[][] world;
+    private final WorldMetadata metadata;
     private final Set<Entity.Position> occupied;
     private final Entity.Position avatarPosition;
     private final Avatar avatar;
     private final CombatService combatService;
 
-    public WorldView(TETile[][] world, Avatar avatar, Set<Entity.Position> occupied, CombatService combatService) {
-        this.world = world;
+    public WorldView(WorldMetadata metadata, Avatar avatar, Set<Entity.Position> occupied, CombatService combatService) {
+        this.metadata = metadata;
         this.avatarPosition = avatar.position();
         this.avatar = avatar;
         this.occupied = occupied;
@@ -24,10 +23,10 @@ public class WorldView {
     }
 
     public boolean isWalkable(int x, int y) {
-        if (x < 0 || y < 0 || x >= world.length || y >= world[0].length) {
+        if (!metadata.inBounds(x, y)) {
             return false;
         }
-        return world[x][y].equals(Tileset.FLOOR) || isOccupied(x,y);
+        return metadata.isWalkable(x, y) || isOccupied(x,y);
     }
 
     public Avatar avatar() {
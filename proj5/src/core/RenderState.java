@@ -0,0 +1,269 @@
+package core;
+
+import core.NPC.Npc;
+import tileengine.AnimationClip;
+import tileengine.AnimationClock;
+import tileengine.TETile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What one frame needs to draw, copied out of the simulation after a tick so the render
+ * thread never touches live game objects. Instances are reused through a
+ * {@link utils.TripleBuffer}; {@link Engine} refills every field before publishing.
+ *
+ * The world grid is shared by reference - it isn't modified after generation, and
+ * loading a save swaps in a new array instead.
+ *
+ * Animated things are published as a clip plus phase rather than a frame, and moving
+ * ones with where and when their last step started. {@link #animate(double)} turns
+ * those into sprites and draw positions for a given render time on the render side, so
+ * frames between ticks interpolate without the simulation tracking anything per frame.
+ */
+public final class RenderState {
+    /** An NPC's tile and animation inputs; draw position and frame are filled in by {@link #animate}. */
+    public static final class Actor {
+        int x;
+        int y;
+        int fromX;
+        int fromY;
+        long moveTick;
+        AnimationClip clip;
+        int phase;
+        double drawX;
+        double drawY;
+        TETile tile;
+
+        public int x() {
+            return x;
+        }
+
+        public int y() {
+            return y;
+        }
+
+        public double drawX() {
+            return drawX;
+        }
+
+        public double drawY() {
+            return drawY;
+        }
+
+        public TETile tile() {
+            return tile;
+        }
+    }
+
+    /** Something static lying on a tile (drops, corpses). */
+    public static final class Prop {
+        int x;
+        int y;
+        TETile tile;
+
+        public int x() {
+            return x;
+        }
+
+        public int y() {
+            return y;
+        }
+
+        public TETile tile() {
+            return tile;
+        }
+    }
+
+    long tick;
+    TETile[][] world;
+    WorldMetadata metadata;
+
+    int avatarX;
+    int avatarY;
+    double avatarOffsetX;
+    double avatarOffsetY;
+    AnimationClip avatarClip;
+    boolean avatarMoving;
+    TETile avatarSprite;
+    /** System.nanoTime() at publish, where render time between this tick and the next starts. */
+    long publishedNanos;
+
+    double lightRadius;
+    String hudMessage;
+    boolean inventoryVisible;
+    final List<String> inventoryLines = new ArrayList<>();
+
+    private final ArrayList<Actor> npcs = new ArrayList<>();
+    private final ArrayList<Prop> drops = new ArrayList<>();
+    private final ArrayList<Prop> corpses = new ArrayList<>();
+    private int npcCount;
+    private int dropCount;
+    private int corpseCount;
+    // index + 1 of the first NPC listed on each world tile (0: none), for hover lookups
+    private int[] npcIndexByTile = new int[0];
+    private int gridHeight;
+
+    /** Forget the previous contents, keeping the pooled entries. */
+    void clear() {
+        world = null;
+        metadata = null;
+        avatarClip = null;
+        avatarMoving = false;
+        avatarSprite = null;
+        hudMessage = "";
+        inventoryVisible = false;
+        inventoryLines.clear();
+        for (int i = 0; i < npcCount; i++) {
+            Actor a = npcs.get(i);
+            npcIndexByTile[a.x * gridHeight + a.y] = 0;
+        }
+        npcCount = 0;
+        dropCount = 0;
+        corpseCount = 0;
+    }
+
+    void addNpc(Npc npc) {
+        if (npcCount == npcs.size()) {
+            npcs.add(new Actor());
+        }
+        Actor a = npcs.get(npcCount++);
+        a.x = npc.x();
+        a.y = npc.y();
+        a.fromX = npc.fromX();
+        a.fromY = npc.fromY();
+        a.moveTick = npc.lastMoveTick();
+        a.clip = npc.clip();
+        a.phase = npc.phase();
+        a.drawX = a.x;
+        a.drawY = a.y;
+        a.tile = a.clip.first();
+        indexNpcTile(a.x, a.y);
+    }
+
+    // Called after world is set for this frame; the grid is resized only when the world is
+    private void indexNpcTile(int x, int y) {
+        int width = world.length;
+        int height = world[0].length;
+        if (npcIndexByTile.length != width * height || gridHeight != height) {
+            npcIndexByTile = new int[width * height];
+            gridHeight = height;
+            for (int i = 0; i < npcCount - 1; i++) {
+                Actor a = npcs.get(i);
+                if (npcIndexByTile[a.x * gridHeight + a.y] == 0) {
+                    npcIndexByTile[a.x * gridHeight + a.y] = i + 1;
+                }
+            }
+        }
+        int cell = x * gridHeight + y;
+        if (npcIndexByTile[cell] == 0) {
+            npcIndexByTile[cell] = npcCount;
+        }
+    }
+
+    void addDrop(int x, int y, TETile tile) {
+        dropCount = addProp(drops, dropCount, x, y, tile);
+    }
+
+    void addCorpse(int x, int y, TETile tile) {
+        corpseCount = addProp(corpses, corpseCount, x, y, tile);
+    }
+
+    private static int addProp(ArrayList<Prop> pool, int count, int x, int y, TETile tile) {
+        if (count == pool.size()) {
+            pool.add(new Prop());
+        }
+        Prop p = pool.get(count);
+        p.x = x;
+        p.y = y;
+        p.tile = tile;
+        return count + 1;
+    }
+
+    /**
+     * Resolve sprites and draw positions for render time {@code time}, in ticks (the
+     * published tick plus however far the renderer is into the next one).
+     */
+    void animate(double time) {
+        if (avatarClip != null) {
+            avatarSprite = avatarMoving ? avatarClip.frameAt(time, 0) : avatarClip.first();
+        }
+        for (int i = 0; i < npcCount; i++) {
+            Actor a = npcs.get(i);
+            a.tile = a.clip.frameAt(time, a.phase);
+            a.drawX = AnimationClock.glide(a.fromX, a.x, time, a.moveTick, Npc.GLIDE_TICKS);
+            a.drawY = AnimationClock.glide(a.fromY, a.y, time, a.moveTick, Npc.GLIDE_TICKS);
+        }
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    public TETile[][] world() {
+        return world;
+    }
+
+    public WorldMetadata metadata() {
+        return metadata;
+    }
+
+    public int avatarX() {
+        return avatarX;
+    }
+
+    public int avatarY() {
+        return avatarY;
+    }
+
+    /** Resolved by {@link #animate}; null before the first call. */
+    public TETile avatarSprite() {
+        return avatarSprite;
+    }
+
+    /** Avatar draw position: its tile plus any offset from squeezing past an NPC. */
+    public double avatarDrawX() {
+        return avatarX + avatarOffsetX;
+    }
+
+    public double avatarDrawY() {
+        return avatarY + avatarOffsetY;
+    }
+
+    public double lightRadius() {
+        return lightRadius;
+    }
+
+    public int npcCount() {
+        return npcCount;
+    }
+
+    public Actor npc(int i) {
+        return npcs.get(i);
+    }
+
+    /** The first NPC standing on a tile, or null; constant time. */
+    public Actor npcAt(int x, int y) {
+        if (gridHeight == 0 || x < 0 || y < 0 || y >= gridHeight || x * gridHeight + y >= npcIndexByTile.length) {
+            return null;
+        }
+        int index = npcIndexByTile[x * gridHeight + y];
+        return index == 0 ? null : npcs.get(index - 1);
+    }
+
+    public int dropCount() {
+        return dropCount;
+    }
+
+    public Prop drop(int i) {
+        return drops.get(i);
+    }
+
+    public int corpseCount() {
+        return corpseCount;
+    }
+
+    public Prop corpse(int i) {
+        return corpses.get(i);
+    }
+}
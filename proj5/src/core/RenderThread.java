@@ -0,0 +1,69 @@
+package core;
+
+import utils.TripleBuffer;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Draws the newest published {@link RenderState} on its own thread at the pacer's target
+ * frame rate, so a slow frame never holds up input polling or the simulation. The
+ * simulation side only ever publishes into the triple buffer; it never waits on this.
+ */
+final class RenderThread {
+    private static final long IDLE_PARK_NS = 500_000L; // uncapped with nothing new to draw
+
+    private final TripleBuffer<RenderState> frames;
+    private final Consumer<RenderState> draw;
+    private final FramePacer pacer;
+    private volatile boolean running;
+    private Thread thread;
+
+    RenderThread(TripleBuffer<RenderState> frames, Consumer<RenderState> draw, FramePacer pacer) {
+        this.frames = frames;
+        this.draw = draw;
+        this.pacer = pacer;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Finish the frame in progress and stop; safe to call when never started. */
+    void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    private void run() {
+        pacer.reset();
+        while (running) {
+            if (pacer.frameDue()) {
+                RenderState state = frames.latest();
+                if (state != null) {
+                    pacer.begin(FramePacer.Phase.RENDER);
+                    draw.accept(state);
+                    pacer.end(FramePacer.Phase.RENDER);
+                    pacer.frameRendered();
+                }
+            }
+            if (pacer.targetFps() == FramePacer.UNCAPPED && !frames.hasFresh()) {
+                LockSupport.parkNanos(IDLE_PARK_NS);
+            } else {
+                pacer.sleepUntilNextFrame();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package core;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Drives an {@link Engine} from an {@link InputRecording} instead of the keyboard.
+ *
+ * Every {@code checkpointInterval} ticks a {@link GameSnapshot} is kept in memory, so
+ * seeking only restores the nearest earlier checkpoint and re-simulates the ticks after it
+ * rather than replaying from the start. Backwards seeks work the same way.
+ */
+public class ReplayEngine {
+    private final Engine engine;
+    private final InputRecording recording;
+    private final int checkpointInterval;
+    private final TreeMap<Long, GameSnapshot> checkpoints = new TreeMap<>();
+    private final long startTick;
+    private boolean quit = false;
+
+    public ReplayEngine(Engine engine, InputRecording recording, int checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive");
+        }
+        this.engine = engine;
+        this.recording = recording;
+        this.checkpointInterval = checkpointInterval;
+        engine.beginReplay(recording);
+        this.startTick = engine.currentTick();
+        checkpoints.put(startTick, engine.captureSnapshot());
+    }
+
+    public long startTick() {
+        return startTick;
+    }
+
+    public long tick() {
+        return engine.currentTick();
+    }
+
+    public long endTick() {
+        return recording.endTick();
+    }
+
+    public boolean finished() {
+        return quit || tick() >= endTick();
+    }
+
+    /** Simulate one recorded tick; false once the recording is exhausted. */
+    public boolean step() {
+        if (finished()) {
+            return false;
+        }
+        long now = engine.currentTick();
+        if (engine.simulateTick(recording.inputAt(now))) {
+            quit = true;
+            return false;
+        }
+        long next = engine.currentTick();
+        if (next % checkpointInterval == 0 && !checkpoints.containsKey(next)) {
+            checkpoints.put(next, engine.captureSnapshot());
+        }
+        return true;
+    }
+
+    /** Simulate until {@code target} (or the end of the recording). */
+    public void fastForward(long target) {
+        while (tick() < target && step()) {
+            // keep stepping
+        }
+    }
+
+    /**
+     * Jump to any tick of the recording. Restores the closest checkpoint at or before the
+     * target when going backwards or when that beats simulating from the current tick.
+     */
+    public void seek(long target) {
+        target = Math.max(startTick, Math.min(target, endTick()));
+        long current = tick();
+        Map.Entry<Long, GameSnapshot> checkpoint = checkpoints.floorEntry(target);
+        if (target < current || checkpoint.getKey() > current) {
+            engine.restoreSnapshot(checkpoint.getValue());
+            quit = false;
+        }
+        fastForward(target);
+    }
+}
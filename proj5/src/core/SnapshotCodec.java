@@ -0,0 +1,415 @@
+package core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Versioned binary save format. Loading costs O(saved state) instead of replaying the
+ * whole keystroke history.
+ *
+ * Layout (big-endian):
+ *   header  : int magic 'BYOW', short version, short sectionCount
+ *   section : int tag, byte flags, int rawLength, int storedLength, byte[storedLength]
+ *
+ * Sections are independent and may be deflated (flag bit 0). Readers skip tags they
+ * don't know, so new sections can be added without breaking older saves.
+ */
+public final class SnapshotCodec {
+    public static final int VERSION = 2;
+
+    private static final int MAGIC = 0x42594F57; // "BYOW"
+    private static final int FLAG_DEFLATED = 1;
+    private static final int COMPRESS_THRESHOLD = 256; // tiny sections aren't worth deflating
+    private static final int HEADER_BYTES = 8;
+    private static final int SECTION_HEADER_BYTES = 13;
+    private static final int MAX_SECTION_BYTES = 64 << 20; // far above any real save; guards corrupt lengths
+
+    private static final int TAG_META = tag("META");
+    private static final int TAG_AVATAR = tag("AVTR");
+    private static final int TAG_INVENTORY = tag("INVN");
+    private static final int TAG_NPCS = tag("NPCS");
+    private static final int TAG_DROPS = tag("DROP");
+    private static final int TAG_CORPSES = tag("CRPS");
+    private static final int TAG_CONTROL = tag("CTRL");
+
+    private SnapshotCodec() {
+    }
+
+    private static int tag(String name) {
+        return (name.charAt(0) << 24) | (name.charAt(1) << 16) | (name.charAt(2) << 8) | name.charAt(3);
+    }
+
+    // ------------------------------------------------------
+    // Writing
+    // ------------------------------------------------------
+
+    public static void write(Path path, GameSnapshot snapshot, boolean compress) throws IOException {
+        List<ByteBuffer> buffers = encode(snapshot, compress);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, buffers);
+        }
+    }
+
+    /** Encode to header + section buffers, ready for a gathering write. */
+    static List<ByteBuffer> encode(GameSnapshot snapshot, boolean compress) throws IOException {
+        List<ByteBuffer> sections = new ArrayList<>();
+        sections.add(section(TAG_META, encodeMeta(snapshot), compress));
+        sections.add(section(TAG_AVATAR, encodeAvatar(snapshot.avatar()), compress));
+        sections.add(section(TAG_INVENTORY, encodeInventory(snapshot.inventory()), compress));
+        sections.add(section(TAG_NPCS, encodeNpcs(snapshot.npcs()), compress));
+        sections.add(section(TAG_DROPS, encodeDrops(snapshot.drops()), compress));
+        sections.add(section(TAG_CORPSES, encodeCorpses(snapshot.corpses()), compress));
+        sections.add(section(TAG_CONTROL, encodeControl(snapshot.control()), compress));
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) sections.size()).flip();
+
+        List<ByteBuffer> buffers = new ArrayList<>(sections.size() + 1);
+        buffers.add(header);
+        buffers.addAll(sections);
+        return buffers;
+    }
+
+    /** In-memory form, used to embed a starting snapshot inside replay recordings. */
+    static byte[] toBytes(GameSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ByteBuffer b : encode(snapshot, true)) {
+            out.write(b.array(), b.position(), b.remaining());
+        }
+        return out.toByteArray();
+    }
+
+    static GameSnapshot fromBytes(byte[] bytes) throws IOException {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    static void writeFully(FileChannel channel, List<ByteBuffer> buffers) throws IOException {
+        ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer b : array) {
+            remaining += b.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(array);
+        }
+    }
+
+    private static ByteBuffer section(int tag, byte[] raw, boolean compress) {
+        byte[] stored = raw;
+        int flags = 0;
+        if (compress && raw.length >= COMPRESS_THRESHOLD) {
+            byte[] deflated = deflate(raw);
+            if (deflated.length < raw.length) {
+                stored = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        ByteBuffer buf = ByteBuffer.allocate(SECTION_HEADER_BYTES + stored.length);
+        buf.putInt(tag).put((byte) flags).putInt(raw.length).putInt(stored.length).put(stored).flip();
+        return buf;
+    }
+
+    private static byte[] encodeMeta(GameSnapshot s) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(s.seed());
+        out.writeLong(s.lightSurgeElapsedMs());
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeAvatar(GameSnapshot.AvatarState a) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(a.x());
+        out.writeInt(a.y());
+        out.writeInt(a.lives());
+        out.writeInt(a.health());
+        out.writeInt(a.invulnerability());
+        out.writeChar(a.facing());
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeInventory(List<GameSnapshot.StackState> stacks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(stacks.size());
+        for (GameSnapshot.StackState s : stacks) {
+            out.writeInt(s.slot());
+            out.writeUTF(s.itemId());
+            out.writeInt(s.quantity());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeNpcs(List<GameSnapshot.NpcState> npcs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(npcs.size() * 48 + 4);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(npcs.size());
+        for (GameSnapshot.NpcState n : npcs) {
+            out.writeInt(n.x());
+            out.writeInt(n.y());
+            out.writeByte(n.facing());
+            out.writeShort(n.variant());
+            out.writeInt(n.health());
+            out.writeInt(n.invulnerability());
+            out.writeByte(n.aiState());
+            out.writeInt(n.phase());
+            out.writeLong(n.rngState());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeDrops(List<GameSnapshot.DropState> drops) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(drops.size());
+        for (GameSnapshot.DropState d : drops) {
+            out.writeUTF(d.itemId());
+            out.writeInt(d.quantity());
+            out.writeInt(d.x());
+            out.writeInt(d.y());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeCorpses(List<GameSnapshot.CorpseState> corpses) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(corpses.size());
+        for (GameSnapshot.CorpseState c : corpses) {
+            out.writeInt(c.x());
+            out.writeInt(c.y());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeControl(GameSnapshot.ControlState c) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(c.tick());
+        out.writeInt(c.previousKeys());
+        out.writeChar(c.currentDirection());
+        out.writeInt(c.ticksSinceLastMove());
+        out.writeBoolean(c.inventoryVisible());
+        out.writeBoolean(c.awaitingQuit());
+        return bytes.toByteArray();
+    }
+
+    // ------------------------------------------------------
+    // Reading
+    // ------------------------------------------------------
+
+    public static GameSnapshot read(Path path) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a save file: " + path);
+            }
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) {
+                    throw new IOException("Truncated save file: " + path);
+                }
+            }
+            buf.flip();
+        }
+        return decode(buf);
+    }
+
+    /**
+     * Parse a snapshot. Any malformed input - truncation, impossible lengths or counts -
+     * comes back as an IOException so callers can fall back to another file.
+     */
+    static GameSnapshot decode(ByteBuffer buf) throws IOException {
+        try {
+            return decodeSections(buf);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt save file", e);
+        }
+    }
+
+    private static GameSnapshot decodeSections(ByteBuffer buf) throws IOException {
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Bad save file magic");
+        }
+        int version = buf.getShort();
+        if (version > VERSION) {
+            throw new IOException("Save file version " + version + " is newer than supported " + VERSION);
+        }
+        int sectionCount = buf.getShort();
+
+        long seed = 0L;
+        long lightElapsed = -1L;
+        GameSnapshot.AvatarState avatar = null;
+        List<GameSnapshot.StackState> inventory = List.of();
+        List<GameSnapshot.NpcState> npcs = List.of();
+        List<GameSnapshot.DropState> drops = List.of();
+        List<GameSnapshot.CorpseState> corpses = List.of();
+        GameSnapshot.ControlState control = GameSnapshot.ControlState.INITIAL;
+
+        for (int i = 0; i < sectionCount; i++) {
+            if (buf.remaining() < SECTION_HEADER_BYTES) {
+                throw new IOException("Truncated section header");
+            }
+            int tag = buf.getInt();
+            int flags = buf.get();
+            int rawLength = buf.getInt();
+            int storedLength = buf.getInt();
+            if (storedLength < 0 || storedLength > buf.remaining()) {
+                throw new IOException("Truncated section payload");
+            }
+            if (rawLength < 0 || rawLength > MAX_SECTION_BYTES) {
+                throw new IOException("Bad section length " + rawLength);
+            }
+            byte[] stored = new byte[storedLength];
+            buf.get(stored);
+            byte[] raw = (flags & FLAG_DEFLATED) != 0 ? inflate(stored, rawLength) : stored;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+
+            if (tag == TAG_META) {
+                seed = in.readLong();
+                lightElapsed = in.readLong();
+            } else if (tag == TAG_AVATAR) {
+                avatar = new GameSnapshot.AvatarState(in.readInt(), in.readInt(), in.readInt(),
+                        in.readInt(), in.readInt(), in.readChar());
+            } else if (tag == TAG_INVENTORY) {
+                inventory = decodeInventory(in);
+            } else if (tag == TAG_NPCS) {
+                npcs = decodeNpcs(in, version);
+            } else if (tag == TAG_DROPS) {
+                drops = decodeDrops(in);
+            } else if (tag == TAG_CORPSES) {
+                corpses = decodeCorpses(in);
+            } else if (tag == TAG_CONTROL) {
+                control = new GameSnapshot.ControlState(in.readLong(), in.readInt(), in.readChar(),
+                        in.readInt(), in.readBoolean(), in.readBoolean());
+            }
+            // unknown tags: payload already consumed, just move on
+        }
+        if (avatar == null) {
+            throw new IOException("Save file has no avatar section");
+        }
+        return new GameSnapshot(seed, avatar, inventory, npcs, drops, corpses, lightElapsed, control);
+    }
+
+    private static List<GameSnapshot.StackState> decodeInventory(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<GameSnapshot.StackState> stacks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stacks.add(new GameSnapshot.StackState(in.readInt(), in.readUTF(), in.readInt()));
+        }
+        return stacks;
+    }
+
+    private static List<GameSnapshot.NpcState> decodeNpcs(DataInputStream in, int version) throws IOException {
+        int count = readCount(in);
+        List<GameSnapshot.NpcState> npcs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            int facing = in.readByte();
+            int variant = in.readShort();
+            int health = in.readInt();
+            int invulnerability = in.readInt();
+            int aiState = in.readByte();
+            int phase = in.readInt();
+            if (version < 2) {
+                // v1 kept per-NPC move/animation counters instead of a phase; the move
+                // counter is the closest stand-in, the animation ones are dropped
+                in.readInt();
+                in.readInt();
+            }
+            npcs.add(new GameSnapshot.NpcState(x, y, facing, variant, health, invulnerability, aiState, phase,
+                    in.readLong()));
+        }
+        return npcs;
+    }
+
+    private static List<GameSnapshot.DropState> decodeDrops(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<GameSnapshot.DropState> drops = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            drops.add(new GameSnapshot.DropState(in.readUTF(), in.readInt(), in.readInt(), in.readInt()));
+        }
+        return drops;
+    }
+
+    private static List<GameSnapshot.CorpseState> decodeCorpses(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<GameSnapshot.CorpseState> corpses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            corpses.add(new GameSnapshot.CorpseState(in.readInt(), in.readInt()));
+        }
+        return corpses;
+    }
+
+    // Element count of a list section; each element takes at least a byte, so anything
+    // beyond what's left is corrupt (and would otherwise size a huge list up front)
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Bad element count " + count);
+        }
+        return count;
+    }
+
+    // ------------------------------------------------------
+    // Compression helpers
+    // ------------------------------------------------------
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int off = 0;
+            while (off < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, off, rawLength - off);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                off += n;
+            }
+            if (off != rawLength) {
+                throw new IOException("Corrupt compressed section");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed section", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
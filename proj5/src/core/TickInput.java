@@ -0,0 +1,25 @@
+package core;
+
+/**
+ * Everything the simulation reads from the keyboard during one tick: which keys are
+ * held (bit mask) and which characters were typed. The simulation only ever sees this,
+ * never StdDraw directly, so recorded input reproduces a session exactly.
+ */
+public record TickInput(int keys, String typed) {
+    public static final int KEY_W = 1;
+    public static final int KEY_A = 1 << 1;
+    public static final int KEY_S = 1 << 2;
+    public static final int KEY_D = 1 << 3;
+    public static final int KEY_SHIFT = 1 << 4;
+    public static final int KEY_INVENTORY = 1 << 5;
+
+    public static final TickInput NONE = new TickInput(0, "");
+
+    public TickInput {
+        typed = typed == null ? "" : typed;
+    }
+
+    public boolean isDown(int key) {
+        return (keys & key) != 0;
+    }
+}
@@ -0,0 +1,38 @@
+package core;
+
+/**
+ * Tile position and facing of an entity. The entity object and the session's transform
+ * store share the same instance, so systems walking the store and code holding the
+ * entity always agree on where it is.
+ */
+public class TransformComponent {
+    private int x;
+    private int y;
+    private Direction facing = Direction.DOWN;
+
+    public TransformComponent(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public int x() {
+        return x;
+    }
+
+    public int y() {
+        return y;
+    }
+
+    public void moveTo(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public Direction facing() {
+        return facing;
+    }
+
+    public void setFacing(Direction facing) {
+        this.facing = facing;
+    }
+}
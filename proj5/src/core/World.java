@@ -2,6 +2,7 @@ package core;
 
 import tileengine.TETile;
 import tileengine.Tileset;
+import utils.RngService;
 
 import java.util.*;
 
@@ -13,12 +14,24 @@ public class World {
     private static final int MAX_ROOM_ATTEMPTS = 1000;
     private static final double TARGET_FILL_RATIO = 0.85;
 
-    private final Random random;
+    // One stream per generation phase so each phase is reproducible on its own
+    private final Random roomRandom;
+    private final Random hallwayRandom;
+    private final Random connectorRandom;
+    private final Random elevatorRandom;
     private final TETile[][] world;
     private final List<Room> rooms;
+    private WorldMetadata metadata;
 
     public World(long seed) {
-        this.random = new Random(seed);
+        this(new RngService(seed));
+    }
+
+    public World(RngService rngs) {
+        this.roomRandom = rngs.stream(RngService.Stream.ROOMS);
+        this.hallwayRandom = rngs.stream(RngService.Stream.HALLWAYS);
+        this.connectorRandom = rngs.stream(RngService.Stream.CONNECTORS);
+        this.elevatorRandom = rngs.stream(RngService.Stream.ELEVATOR);
         this.world = new TETile[WIDTH][HEIGHT];
         this.rooms = new ArrayList<>();
         initializeVoid();
@@ -39,9 +52,23 @@ public class World {
                 break;
             }
         }
+        metadata = buildMetadata();
         return world;
     }
 
+    // Precomputed tile flags/room ids/spawn cells for the finished world; null until generate() runs
+    public WorldMetadata metadata() {
+        return metadata;
+    }
+
+    private WorldMetadata buildMetadata() {
+        List<int[]> roomBounds = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            roomBounds.add(new int[]{room.left, room.bottom, room.width, room.height});
+        }
+        return WorldMetadata.build(world, roomBounds);
+    }
+
 
     private void placeElevator() {
         List<Position> candidates = new ArrayList<>();
@@ -74,7 +101,7 @@ public class World {
         }
 
         // pick one random location
-        Position p = candidates.get(new Random().nextInt(candidates.size()));
+        Position p = candidates.get(elevatorRandom.nextInt(candidates.size()));
         world[p.x][p.y] = Tileset.ELEVATOR;
     }
 
@@ -97,7 +124,7 @@ public class World {
         int maxConnectorDist = 30; // squared distance; tune to taste
 
         List<Room> shuffled = new ArrayList<>(rooms);
-        Collections.shuffle(shuffled, random);
+        Collections.shuffle(shuffled, connectorRandom);
 
         for (int i = 0; i < shuffled.size() - 1; i++) {
             Room a = shuffled.get(i);
@@ -215,7 +242,7 @@ public class World {
     // Removed turningCorner, just doing L shaped
     private void carveHallway(Position a, Position b) {
         int corridorWidth = 2; //random.nextBoolean() ? 1:2;
-        if (random.nextBoolean()) {
+        if (hallwayRandom.nextBoolean()) {
             // horizontal first
             carveSegment(a, new Position(b.x, a.y), corridorWidth);
             carveSegment(new Position(b.x, a.y), b, corridorWidth);
@@ -552,7 +579,7 @@ public class World {
     }
 
     private int randomRange(int min, int maxInclusive) {
-        return random.nextInt(maxInclusive - min + 1) + min;
+        return roomRandom.nextInt(maxInclusive - min + 1) + min;
     }
 
     // Room Class
@@ -0,0 +1,217 @@
+package core;
+
+import tileengine.TETile;
+import tileengine.Tileset;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Per-tile facts derived once from a generated world so render and AI code can read
+ * a flag instead of re-deriving tile classes with equals/identity chains every frame.
+ *
+ * Cells are stored column-major (index = x * height + y), matching the order World and
+ * Engine have always scanned the grid in.
+ */
+public final class WorldMetadata {
+    /** Avatar/NPCs can stand here (FLOOR and anything sharing its id, e.g. ELEVATOR). */
+    public static final int WALKABLE = 1;
+    /** Blocks line of sight for the lighting pass. */
+    public static final int OPAQUE = 1 << 1;
+    /** Wall caps that must be drawn over actors standing below them. */
+    public static final int TOP_WALL = 1 << 2;
+    /** Drawn in the base pass, underneath every actor. */
+    public static final int BASE_LAYER = 1 << 3;
+
+    private static final int MAX_DISTANCE = 255;
+
+    private final int width;
+    private final int height;
+    private final byte[] flags;
+    private final short[] roomIds;       // 0 = hallway / not inside a room
+    private final byte[] distanceToWall; // unsigned, capped at MAX_DISTANCE
+    private final int[] spawnCells;      // walkable cells, column-major order
+
+    private WorldMetadata(int width, int height, byte[] flags, short[] roomIds,
+                          byte[] distanceToWall, int[] spawnCells) {
+        this.width = width;
+        this.height = height;
+        this.flags = flags;
+        this.roomIds = roomIds;
+        this.distanceToWall = distanceToWall;
+        this.spawnCells = spawnCells;
+    }
+
+    /**
+     * Build metadata for a finished world.
+     * @param rooms room rectangles as {left, bottom, width, height}; index + 1 becomes the room id
+     */
+    public static WorldMetadata build(TETile[][] world, List<int[]> rooms) {
+        int width = world.length;
+        int height = world[0].length;
+        byte[] flags = new byte[width * height];
+
+        int walkableCount = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int flag = classify(world[x][y]);
+                flags[x * height + y] = (byte) flag;
+                if ((flag & WALKABLE) != 0) {
+                    walkableCount += 1;
+                }
+            }
+        }
+
+        int[] spawnCells = new int[walkableCount];
+        int next = 0;
+        for (int cell = 0; cell < flags.length; cell++) {
+            if ((flags[cell] & WALKABLE) != 0) {
+                spawnCells[next++] = cell;
+            }
+        }
+
+        short[] roomIds = new short[width * height];
+        for (int i = 0; i < rooms.size(); i++) {
+            int[] r = rooms.get(i);
+            short id = (short) Math.min(Short.MAX_VALUE, i + 1);
+            for (int x = r[0]; x < r[0] + r[2] && x < width; x++) {
+                for (int y = r[1]; y < r[1] + r[3] && y < height; y++) {
+                    int cell = x * height + y;
+                    if ((flags[cell] & WALKABLE) != 0) {
+                        roomIds[cell] = id;
+                    }
+                }
+            }
+        }
+
+        byte[] distanceToWall = computeDistanceToWall(flags, width, height);
+        return new WorldMetadata(width, height, flags, roomIds, distanceToWall, spawnCells);
+    }
+
+    private static int classify(TETile tile) {
+        int flag = 0;
+        if (tile.equals(Tileset.FLOOR)) {
+            flag |= WALKABLE;
+        }
+        if (tile == Tileset.FLOOR || tile == Tileset.ELEVATOR) {
+            flag |= BASE_LAYER;
+        }
+        if (tile == Tileset.WALL_TOP) {
+            flag |= OPAQUE;
+        }
+        if (tile == Tileset.WALL_TOP || tile == Tileset.FRONT_WALL_TOP || tile == Tileset.BACK_WALL) {
+            flag |= TOP_WALL;
+        }
+        return flag;
+    }
+
+    // Multi-source BFS outward from every non-walkable cell (Manhattan distance)
+    private static byte[] computeDistanceToWall(byte[] flags, int width, int height) {
+        int[] dist = new int[flags.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int cell = 0; cell < flags.length; cell++) {
+            int x = cell / height;
+            int y = cell % height;
+            boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+            if ((flags[cell] & WALKABLE) == 0) {
+                dist[cell] = 0;
+                queue.add(cell);
+            } else if (border) {
+                dist[cell] = 1;
+                queue.add(cell);
+            } else {
+                dist[cell] = -1;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int cell = queue.removeFirst();
+            int x = cell / height;
+            int y = cell % height;
+            int d = dist[cell] + 1;
+            if (x > 0) visit(dist, queue, cell - height, d);
+            if (x < width - 1) visit(dist, queue, cell + height, d);
+            if (y > 0) visit(dist, queue, cell - 1, d);
+            if (y < height - 1) visit(dist, queue, cell + 1, d);
+        }
+        byte[] distanceToWall = new byte[flags.length];
+        for (int cell = 0; cell < flags.length; cell++) {
+            distanceToWall[cell] = (byte) Math.min(MAX_DISTANCE, dist[cell]);
+        }
+        return distanceToWall;
+    }
+
+    private static void visit(int[] dist, ArrayDeque<Integer> queue, int cell, int d) {
+        if (dist[cell] == -1) {
+            dist[cell] = d;
+            queue.add(cell);
+        }
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /** Raw flag bits for a tile; 0 when out of bounds. */
+    public int flags(int x, int y) {
+        return inBounds(x, y) ? flags[x * height + y] : 0;
+    }
+
+    public boolean isWalkable(int x, int y) {
+        return (flags(x, y) & WALKABLE) != 0;
+    }
+
+    public boolean isOpaque(int x, int y) {
+        return (flags(x, y) & OPAQUE) != 0;
+    }
+
+    public boolean isTopWall(int x, int y) {
+        return (flags(x, y) & TOP_WALL) != 0;
+    }
+
+    public boolean isBaseLayer(int x, int y) {
+        return (flags(x, y) & BASE_LAYER) != 0;
+    }
+
+    public int roomId(int x, int y) {
+        return inBounds(x, y) ? roomIds[x * height + y] : 0;
+    }
+
+    public int distanceToWall(int x, int y) {
+        return inBounds(x, y) ? distanceToWall[x * height + y] & 0xFF : 0;
+    }
+
+    // Spawn-eligible cells - packed as x * height + y
+
+    public int spawnCellCount() {
+        return spawnCells.length;
+    }
+
+    public int spawnCell(int index) {
+        return spawnCells[index];
+    }
+
+    /** Uniformly pick a walkable cell in O(1); returns -1 when the world has no floor. */
+    public int randomSpawnCell(Random random) {
+        if (spawnCells.length == 0) {
+            return -1;
+        }
+        return spawnCells[random.nextInt(spawnCells.length)];
+    }
+
+    public int cellX(int cell) {
+        return cell / height;
+    }
+
+    public int cellY(int cell) {
+        return cell % height;
+    }
+}
@@ -0,0 +1,95 @@
+package core.ecs;
+
+import java.util.Arrays;
+
+/**
+ * One component type for any number of entities, as a sparse set: values are packed
+ * densely in {@code values[0 .. size-1]} (with their entity ids alongside), and a sparse
+ * array by entity slot points into them. Lookup and add are O(1).
+ *
+ * Packed order is insertion order, and removal keeps it by shifting the tail down (O(n),
+ * but entities die far less often than systems iterate). Systems that resolve conflicts
+ * first-come-first-served, like NPCs claiming tiles, stay deterministic that way.
+ *
+ * Systems iterate with {@link #size()}, {@link #entityAt} and {@link #valueAt}, a plain
+ * indexed loop over packed arrays with no iterator or boxing.
+ */
+public final class ComponentStore<T> {
+    private int[] sparse = new int[64]; // entity slot -> dense position + 1 (0 = absent)
+    private int[] entities = new int[16];
+    private Object[] values = new Object[16];
+    private int size;
+
+    ComponentStore() {
+    }
+
+    public void put(int entity, T value) {
+        int index = Registry.index(entity);
+        if (index >= sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.max(index + 1, sparse.length * 2));
+        }
+        int at = sparse[index] - 1;
+        if (at >= 0 && entities[at] == entity) {
+            values[at] = value;
+            return;
+        }
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        entities[size] = entity;
+        values[size] = value;
+        sparse[index] = ++size;
+    }
+
+    public void remove(int entity) {
+        int at = position(entity);
+        if (at < 0) {
+            return;
+        }
+        size -= 1;
+        System.arraycopy(entities, at + 1, entities, at, size - at);
+        System.arraycopy(values, at + 1, values, at, size - at);
+        for (int i = at; i < size; i++) {
+            sparse[Registry.index(entities[i])] = i + 1;
+        }
+        sparse[Registry.index(entity)] = 0;
+        values[size] = null;
+    }
+
+    public boolean has(int entity) {
+        return position(entity) >= 0;
+    }
+
+    /** The entity's component, or null if it has none. */
+    @SuppressWarnings("unchecked")
+    public T get(int entity) {
+        int at = position(entity);
+        return at < 0 ? null : (T) values[at];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int entityAt(int i) {
+        return entities[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T valueAt(int i) {
+        return (T) values[i];
+    }
+
+    private int position(int entity) {
+        if (entity < 0) {
+            return -1;
+        }
+        int index = Registry.index(entity);
+        if (index >= sparse.length) {
+            return -1;
+        }
+        int at = sparse[index] - 1;
+        return at >= 0 && entities[at] == entity ? at : -1;
+    }
+}
@@ -0,0 +1,7 @@
+package core.ecs;
+
+/** One step of the simulation, run once per tick by a {@link SystemSchedule}. */
+@FunctionalInterface
+public interface GameSystem {
+    void update(long tick);
+}
@@ -0,0 +1,84 @@
+package core.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entity ids and the component stores attached to them. An id is a slot index plus a
+ * generation: destroying an entity bumps its slot's generation, so a stale id held
+ * anywhere stops matching instead of silently pointing at whatever reuses the slot.
+ *
+ * Components live in {@link ComponentStore}s created here; destroying an entity removes
+ * it from every one of them.
+ */
+public final class Registry {
+    public static final int NONE = -1;
+
+    private static final int INDEX_BITS = 20; // ~1M live entities
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1; // keeps ids non-negative
+
+    private int[] generations = new int[64];
+    private int[] free = new int[64];
+    private int freeCount;
+    private int nextIndex;
+    private int alive;
+    private final List<ComponentStore<?>> stores = new ArrayList<>();
+
+    public static int index(int id) {
+        return id & INDEX_MASK;
+    }
+
+    public int create() {
+        int index;
+        if (freeCount > 0) {
+            index = free[--freeCount];
+        } else {
+            if (nextIndex > INDEX_MASK) {
+                throw new IllegalStateException("Too many entities");
+            }
+            index = nextIndex++;
+            if (index == generations.length) {
+                generations = Arrays.copyOf(generations, index * 2);
+            }
+        }
+        alive += 1;
+        return (generations[index] << INDEX_BITS) | index;
+    }
+
+    public void destroy(int id) {
+        if (!alive(id)) {
+            return;
+        }
+        for (ComponentStore<?> store : stores) {
+            store.remove(id);
+        }
+        int index = index(id);
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = index;
+        alive -= 1;
+    }
+
+    public boolean alive(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = index(id);
+        return index < nextIndex && generations[index] == id >>> INDEX_BITS;
+    }
+
+    public int aliveCount() {
+        return alive;
+    }
+
+    /** A new component type. Components are removed here automatically when their entity dies. */
+    public <T> ComponentStore<T> store() {
+        ComponentStore<T> store = new ComponentStore<>();
+        stores.add(store);
+        return store;
+    }
+}
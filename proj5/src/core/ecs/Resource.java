@@ -0,0 +1,21 @@
+package core.ecs;
+
+/**
+ * Shared simulation state that systems declare they read or write. The
+ * {@link SystemSchedule} only runs two systems at the same time when neither writes
+ * anything the other touches.
+ */
+public enum Resource {
+    INPUT,      // this tick's TickInput and the previous tick's keys
+    WORLD,      // tiles and metadata (read-only during a tick)
+    AVATAR,     // avatar position, facing, draw offset, held direction and repeat timer
+    NPCS,       // NPC transforms and brains (and the stores' layout), tile index, corpses
+    DAMAGE,     // queued combat events
+    HEALTH,     // health and invulnerability of every entity
+    INVENTORY,  // inventory contents
+    OVERLAY,    // whether the inventory overlay is open
+    DROPS,      // items on the ground
+    HUD,        // HUD message
+    LIGHTING,   // light surge state
+    AUDIO       // queued sound cues and the effects mixer
+}
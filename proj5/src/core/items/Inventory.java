@@ -1,84 +1,169 @@
 package core.items;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * Fixed number of slots, each empty or holding one stack. Indexed so that nothing scans
+ * every slot: a bitset of free slots gives the first empty one, and per item type (by
+ * {@link Item#index()}) a bitset of the slots holding it plus a running total. Adding,
+ * removing and counting an item only touch that item's stacks.
+ *
+ * Walk the stacks with {@link #nextStackSlot} / {@link #stackAt}, which allocate nothing;
+ * {@link #version()} changes on every modification so callers can cache what they derive.
+ */
 public class Inventory {
-    private final List<ItemStack> slots;
+    private final ItemStack[] slots;
+    private final List<ItemStack> slotsView;
+    private final BitSet free;
+    private final BitSet[] slotsByItem; // created on first use per item
+    private final int[] totals;
+    private int stackCount;
+    private int version;
 
     public Inventory(int slotCount) {
         int sanitizedSlots = Math.max(1, slotCount);
-        this.slots = new ArrayList<>(Collections.nCopies(sanitizedSlots, null));
+        this.slots = new ItemStack[sanitizedSlots];
+        this.slotsView = Collections.unmodifiableList(Arrays.asList(slots));
+        this.free = new BitSet(sanitizedSlots);
+        free.set(0, sanitizedSlots);
+        this.slotsByItem = new BitSet[ItemRegistry.count()];
+        this.totals = new int[ItemRegistry.count()];
     }
 
+    /** Read-only view of every slot (null = empty), in slot order. */
     public List<ItemStack> slots() {
-        return Collections.unmodifiableList(slots);
+        return slotsView;
     }
 
     public int add(Item item, int quantity) {
         int remaining = quantity;
+        int index = item.index();
 
         // Fill existing stacks first
-        for (int i = 0; i < slots.size() && remaining > 0; i++) {
-            ItemStack stack = slots.get(i);
-            if (stack == null || !stack.item().equals(item)) {
-                continue;
+        BitSet held = slotsByItem[index];
+        if (held != null) {
+            for (int i = held.nextSetBit(0); i >= 0 && remaining > 0; i = held.nextSetBit(i + 1)) {
+                remaining = slots[i].addQuantity(remaining);
             }
-            remaining = stack.addQuantity(remaining);
         }
 
         // Place into empty slots
-        for (int i = 0; i < slots.size() && remaining > 0; i++) {
-            if (slots.get(i) != null) {
-                continue;
+        while (remaining > 0) {
+            int i = free.nextSetBit(0);
+            if (i < 0) {
+                break;
             }
             int toPlace = Math.min(item.getMaxStackSize(), remaining);
-            slots.set(i, new ItemStack(item, toPlace));
+            place(i, new ItemStack(item, toPlace));
             remaining -= toPlace;
         }
 
+        if (remaining != quantity) {
+            totals[index] += quantity - remaining;
+            version += 1;
+        }
         return remaining;
     }
 
     public boolean remove(Item item, int quantity) {
         int remaining = quantity;
-        for (int i = 0; i < slots.size() && remaining > 0; i++) {
-            ItemStack stack = slots.get(i);
-            if (stack == null || !stack.item().equals(item)) {
-                continue;
-            }
-            int removed = stack.removeQuantity(remaining);
-            remaining -= removed;
-            if (stack.quantity() == 0) {
-                slots.set(i, null);
+        int index = item.index();
+        BitSet held = slotsByItem[index];
+        if (held != null) {
+            for (int i = held.nextSetBit(0); i >= 0 && remaining > 0; i = held.nextSetBit(i + 1)) {
+                int removed = slots[i].removeQuantity(remaining);
+                remaining -= removed;
+                totals[index] -= removed;
+                if (slots[i].quantity() == 0) {
+                    clear(i);
+                }
             }
         }
+        if (remaining != quantity) {
+            version += 1;
+        }
         return remaining == 0;
     }
 
-    public List<ItemStack> nonEmptySlots() {
-        List<ItemStack> results = new ArrayList<>();
-        for (ItemStack stack : slots) {
-            if (stack != null && stack.quantity() > 0) {
-                results.add(stack);
-            }
+    /** Total quantity of an item across all stacks. */
+    public int count(Item item) {
+        return totals[item.index()];
+    }
+
+    /** Number of occupied slots. */
+    public int stackCount() {
+        return stackCount;
+    }
+
+    /** First occupied slot at or after {@code from}, or -1. */
+    public int nextStackSlot(int from) {
+        int i = free.nextClearBit(from);
+        return i < slots.length ? i : -1;
+    }
+
+    /** The stack in a slot, or null if it's empty. */
+    public ItemStack stackAt(int slot) {
+        return slots[slot];
+    }
+
+    /** Changes whenever any slot does. */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Put a stack directly into a slot (used when restoring a save). Out-of-range slots are ignored.
+     */
+    public void restoreSlot(int slot, Item item, int quantity) {
+        if (slot < 0 || slot >= slots.length || item == null) {
+            return;
+        }
+        if (slots[slot] != null) {
+            totals[slots[slot].item().index()] -= slots[slot].quantity();
+            clear(slot);
+        }
+        if (quantity > 0) {
+            ItemStack stack = new ItemStack(item, Math.min(quantity, item.getMaxStackSize()));
+            place(slot, stack);
+            totals[item.index()] += stack.quantity();
         }
-        return results;
+        version += 1;
     }
 
     /**
      * Remove and return all stored stacks, leaving the inventory empty.
      */
     public List<ItemStack> dumpAll() {
-        List<ItemStack> removed = new ArrayList<>();
-        for (int i = 0; i < slots.size(); i += 1) {
-            ItemStack stack = slots.get(i);
-            if (stack != null && stack.quantity() > 0) {
-                removed.add(stack);
-            }
-            slots.set(i, null);
+        List<ItemStack> removed = new ArrayList<>(stackCount);
+        for (int i = nextStackSlot(0); i >= 0; i = nextStackSlot(i + 1)) {
+            ItemStack stack = slots[i];
+            removed.add(stack);
+            totals[stack.item().index()] = 0;
+            clear(i);
         }
+        version += 1;
         return removed;
     }
-}
\ No newline at end of file
+
+    private void place(int slot, ItemStack stack) {
+        int index = stack.item().index();
+        if (slotsByItem[index] == null) {
+            slotsByItem[index] = new BitSet(slots.length);
+        }
+        slots[slot] = stack;
+        slotsByItem[index].set(slot);
+        free.clear(slot);
+        stackCount += 1;
+    }
+
+    private void clear(int slot) {
+        slotsByItem[slots[slot].item().index()].clear(slot);
+        slots[slot] = null;
+        free.set(slot);
+        stackCount -= 1;
+    }
+}
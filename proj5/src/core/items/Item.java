@@ -2,15 +2,21 @@ package core.items;
 import java.util.Objects;
 
 
-
+/**
+ * One kind of item. Instances are interned by {@link ItemRegistry}: there is exactly one
+ * per catalog entry, and {@link #index()} is its dense position in the catalog, so items
+ * can be compared with {@code ==} or by index and used to index arrays.
+ */
 public class Item {
+    private final int index;
     private final String id;
     private final String name;
     private final ItemRarity rarity;
     private final int maxStackSize;
     private final String equipEffect;
 
-    public Item(String id, String name, ItemRarity rarity, int maxStackSize, String equipEffect) {
+    Item(int index, String id, String name, ItemRarity rarity, int maxStackSize, String equipEffect) {
+        this.index = index;
         this.id = Objects.requireNonNull(id, "id");
         this.name = Objects.requireNonNull(name, "name");
         this.rarity = Objects.requireNonNull(rarity, "rarity");
@@ -18,6 +24,11 @@ public class Item {
         this.equipEffect = equipEffect == null ? "" : equipEffect;
     }
 
+    /** Dense id, 0 .. {@link ItemRegistry#count()} - 1. Not stable across catalog edits; saves use {@link #id()}. */
+    public int index() {
+        return index;
+    }
+
     public String id() {
         return id;
     }
@@ -41,15 +52,13 @@ public class Item {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null | getClass() != o.getClass()) return true;
+        if (o == null || getClass() != o.getClass()) return false;
         Item item = (Item) o;
-        return id.equals(item.id);
+        return index == item.index;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return index;
     }
-
-
 }
@@ -1,9 +1,20 @@
 package core.items;
 
 public enum ItemRarity {
-    COMMON,
-    UNCOMMON,
-    RARE,
-    EPIC,
-    LEGENDARY
+    COMMON(100),
+    UNCOMMON(40),
+    RARE(12),
+    EPIC(3),
+    LEGENDARY(1);
+
+    private final int weight;
+
+    ItemRarity(int weight) {
+        this.weight = weight;
+    }
+
+    /** Default relative chance in a loot table, for entries that don't set their own. */
+    public int weight() {
+        return weight;
+    }
 }
@@ -1,38 +1,117 @@
 package core.items;
 
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every item type, read once from the catalog file ({@value #CATALOG_PATH}) when this class
+ * loads. Items are interned and numbered densely in file order, so lookups by index are an
+ * array read and by string id (save files) a single hash probe.
+ */
 public final class ItemRegistry {
-    public static final Item SMALL_POTION = new Item(
-            "small_potion",
-            "Small Potion",
-            ItemRarity.COMMON,
-            5,
-            "Restores a small amount of health"
-    );
-
-    public static final Item TORCH = new Item(
-            "torch",
-            "Torch",
-            ItemRarity.UNCOMMON,
-            10,
-            "Sheds light when equipped"
-    );
-
-    public static final Item GEMSTONE = new Item(
-            "gemstone",
-            "Gemstone",
-            ItemRarity.RARE,
-            20,
-            "Valuable crafting catalyst"
-    );
-
-    public static final Item LIGHT_SHARD = new Item(
-            "light_shard",
-            "Light Shard",
-            ItemRarity.UNCOMMON,
-            5,
-            "Temporarily brightens your surroundings when picked up"
-    );
+    /** Relative to the working directory, falling back to the classpath. */
+    public static final String CATALOG_PATH = "assets/items.txt";
+
+    private static final Item[] BY_INDEX;
+    private static final Map<String, Item> BY_ID = new HashMap<>();
+
+    static {
+        List<Item> items;
+        try (InputStream in = open(CATALOG_PATH)) {
+            items = parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read item catalog " + CATALOG_PATH, e);
+        }
+        BY_INDEX = items.toArray(new Item[0]);
+        for (Item item : BY_INDEX) {
+            BY_ID.put(item.id(), item);
+        }
+    }
+
+    // Items the game refers to by name; the catalog has to define them
+    public static final Item SMALL_POTION = require("small_potion");
+    public static final Item TORCH = require("torch");
+    public static final Item GEMSTONE = require("gemstone");
+    public static final Item LIGHT_SHARD = require("light_shard");
+
+    /** Look up an item by its string id (used by save files); null when unknown. */
+    public static Item byId(String id) {
+        return BY_ID.get(id);
+    }
+
+    public static Item byIndex(int index) {
+        return BY_INDEX[index];
+    }
+
+    /** Number of item types; indices run from 0 to count() - 1. */
+    public static int count() {
+        return BY_INDEX.length;
+    }
+
+    private static Item require(String id) {
+        Item item = BY_ID.get(id);
+        if (item == null) {
+            throw new IllegalStateException("Item catalog " + CATALOG_PATH + " has no '" + id + "'");
+        }
+        return item;
+    }
+
+    // File first, then classpath, like image loading
+    static InputStream open(String path) throws IOException {
+        if (Files.isRegularFile(Path.of(path))) {
+            return new FileInputStream(path);
+        }
+        InputStream in = ItemRegistry.class.getResourceAsStream("/" + path);
+        if (in == null) {
+            throw new IOException("not found");
+        }
+        return in;
+    }
+
+    // id | name | rarity | max stack | equip effect (optional); '#' starts a comment line
+    private static List<Item> parse(InputStream in) throws IOException {
+        List<Item> items = new ArrayList<>();
+        Map<String, Integer> seen = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber += 1;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] f = line.split("\\|", -1);
+            if (f.length < 4 || f.length > 5) {
+                throw new IOException("line " + lineNumber + ": expected 4 or 5 fields separated by '|'");
+            }
+            String id = f[0].strip();
+            if (seen.putIfAbsent(id, lineNumber) != null) {
+                throw new IOException("line " + lineNumber + ": duplicate id '" + id + "' (first on line "
+                        + seen.get(id) + ")");
+            }
+            try {
+                ItemRarity rarity = ItemRarity.valueOf(f[2].strip().toUpperCase(Locale.ROOT));
+                int maxStack = Integer.parseInt(f[3].strip());
+                String effect = f.length == 5 ? f[4].strip() : "";
+                items.add(new Item(items.size(), id, f[1].strip(), rarity, maxStack, effect));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return items;
+    }
 
     private ItemRegistry() {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package core.items;
+
+import utils.AliasTable;
+import utils.RandomUtils;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Weighted drops: a chance that anything drops at all, then one entry picked by weight and
+ * a quantity from its range. Entries are sampled through an {@link AliasTable}, so a roll
+ * costs the same whether the table has three entries or three hundred.
+ *
+ * Rolls only draw from the {@link Random} they're given, so with a seeded stream the same
+ * world or the same NPC always drops the same thing.
+ */
+public final class LootTable {
+    public record Entry(Item item, double weight, int minQuantity, int maxQuantity) { }
+
+    public static final LootTable EMPTY = new LootTable("empty", 0.0, List.of());
+
+    private final String name;
+    private final double dropChance;
+    private final Entry[] entries;
+    private final AliasTable picker; // null when there's nothing to pick
+
+    LootTable(String name, double dropChance, List<Entry> entries) {
+        this.name = name;
+        this.dropChance = dropChance;
+        this.entries = entries.toArray(new Entry[0]);
+        double[] weights = new double[this.entries.length];
+        double total = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = this.entries[i].weight();
+            total += weights[i];
+        }
+        this.picker = total > 0.0 ? new AliasTable(weights) : null;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** One drop, or null when the roll comes up empty. */
+    public ItemStack roll(Random random) {
+        if (picker == null) {
+            return null;
+        }
+        if (dropChance < 1.0 && !RandomUtils.bernoulli(random, dropChance)) {
+            return null;
+        }
+        Entry entry = entries[RandomUtils.discrete(random, picker)];
+        int quantity = entry.minQuantity() == entry.maxQuantity()
+                ? entry.minQuantity()
+                : RandomUtils.uniform(random, entry.minQuantity(), entry.maxQuantity() + 1);
+        return new ItemStack(entry.item(), quantity);
+    }
+}
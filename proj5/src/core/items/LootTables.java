@@ -0,0 +1,121 @@
+package core.items;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named loot tables, read once from {@value #TABLES_PATH} when this class loads (format is
+ * described at the top of that file). {@link #world()} is what a new world scatters on the
+ * floor; {@link #forNpcVariant} is what a slain NPC drops, with per-variant overrides.
+ */
+public final class LootTables {
+    /** Relative to the working directory, falling back to the classpath. */
+    public static final String TABLES_PATH = "assets/loot.txt";
+
+    private static final Map<String, LootTable> TABLES = new HashMap<>();
+
+    static {
+        try (InputStream in = ItemRegistry.open(TABLES_PATH)) {
+            parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read loot tables " + TABLES_PATH + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static LootTable world() {
+        return TABLES.getOrDefault("world", LootTable.EMPTY);
+    }
+
+    public static LootTable forNpcVariant(int variant) {
+        LootTable table = TABLES.get("npc." + variant);
+        return table != null ? table : TABLES.getOrDefault("npc", LootTable.EMPTY);
+    }
+
+    private static void parse(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String name = null;
+        double chance = 0.0;
+        List<LootTable.Entry> entries = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber += 1;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] f = line.split("\\s+");
+            try {
+                if (f[0].equals("table")) {
+                    if (f.length != 3) {
+                        throw new IOException("expected 'table <name> <chance>'");
+                    }
+                    if (name != null) {
+                        add(name, chance, entries);
+                    }
+                    name = f[1];
+                    chance = Double.parseDouble(f[2]);
+                    if (!(chance >= 0.0 && chance <= 1.0)) {
+                        throw new IOException("drop chance must be between 0 and 1");
+                    }
+                    entries = new ArrayList<>();
+                    continue;
+                }
+                if (name == null) {
+                    throw new IOException("entry before the first table");
+                }
+                entries.add(entry(f));
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IOException("line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        if (name != null) {
+            add(name, chance, entries);
+        }
+    }
+
+    private static void add(String name, double chance, List<LootTable.Entry> entries) throws IOException {
+        if (TABLES.putIfAbsent(name, new LootTable(name, chance, entries)) != null) {
+            throw new IOException("table '" + name + "' defined twice");
+        }
+    }
+
+    // <item id> [weight] [min-max], the optional parts in either order
+    private static LootTable.Entry entry(String[] f) throws IOException {
+        Item item = ItemRegistry.byId(f[0]);
+        if (item == null) {
+            throw new IOException("unknown item '" + f[0] + "'");
+        }
+        if (f.length > 3) {
+            throw new IOException("expected '<item id> [weight] [min-max]'");
+        }
+        double weight = item.rarity().weight();
+        int min = 1;
+        int max = 1;
+        for (int i = 1; i < f.length; i++) {
+            int dash = f[i].indexOf('-');
+            if (dash > 0) {
+                min = Integer.parseInt(f[i].substring(0, dash));
+                max = Integer.parseInt(f[i].substring(dash + 1));
+                if (min < 1 || max < min) {
+                    throw new IOException("bad quantity range " + f[i]);
+                }
+            } else {
+                weight = Double.parseDouble(f[i]);
+                if (!(weight >= 0.0)) {
+                    throw new IOException("weight must be nonnegative");
+                }
+            }
+        }
+        return new LootTable.Entry(item, weight, min, max);
+    }
+
+    private LootTables() {
+    }
+}
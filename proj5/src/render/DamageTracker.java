@@ -0,0 +1,170 @@
+package render;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds which screen cells changed between two consecutive scenes.
+ *
+ * Every element folds a hash of what it draws (tile/color identity, position, size, layer,
+ * draw order) into each screen cell it touches. A cell whose hash differs from the
+ * previous frame is damaged. Damaged cells are merged into a few rectangles so backends
+ * can recomposite just those areas, or skip the frame entirely when nothing changed.
+ *
+ * Rectangles are in cell units: x = column from the left, y = row from the bottom.
+ */
+public final class DamageTracker {
+    private final int cols;
+    private final int rows;
+    private final double originX;
+    private final double originY;
+    private int[] previous;
+    private int[] current;
+    private final boolean[] damaged;
+    private boolean fullDamage = true;
+    private int damagedCells;
+
+    private final List<Rectangle> rects = new ArrayList<>();
+    private final List<Rectangle> rectPool = new ArrayList<>();
+    private int[] openRect; // per column: index into rects of the run that ended on the row below, or -1
+
+    public DamageTracker(int cols, int rows, double originX, double originY) {
+        this.cols = cols;
+        this.rows = rows;
+        this.originX = originX;
+        this.originY = originY;
+        this.previous = new int[cols * rows];
+        this.current = new int[cols * rows];
+        this.damaged = new boolean[cols * rows];
+        this.openRect = new int[cols];
+    }
+
+    /** Treat the next frame as fully damaged (first frame, lost surface, resize). */
+    public void invalidate() {
+        fullDamage = true;
+    }
+
+    public int totalCells() {
+        return cols * rows;
+    }
+
+    public boolean anyDamage() {
+        return damagedCells > 0;
+    }
+
+    public int rectCount() {
+        return rects.size();
+    }
+
+    public Rectangle rect(int i) {
+        return rects.get(i);
+    }
+
+    /** Hash the scene, diff against the last one and rebuild the damage rectangles. */
+    public int compute(Scene scene) {
+        Arrays.fill(current, scene.clearColor().getRGB());
+        for (Scene.Layer layer : scene.drawOrder()) {
+            int salt = layer.ordinal() * 0x9E3779B9;
+            for (int i = 0, n = scene.spriteCount(layer); i < n; i++) {
+                Scene.Sprite s = scene.sprite(layer, i);
+                int h = salt ^ System.identityHashCode(s.tile());
+                h = mix(h, s.x(), s.y(), s.width(), s.height());
+                fold(h, s.x() - s.width() / 2.0, s.y() - s.height() / 2.0,
+                        s.x() + s.width() / 2.0, s.y() + s.height() / 2.0);
+            }
+            for (int i = 0, n = scene.overlayCount(layer); i < n; i++) {
+                Scene.Overlay o = scene.overlay(layer, i);
+                int h = mix(salt ^ o.color().getRGB(), o.x(), o.y(), o.width(), o.height());
+                fold(h, o.x(), o.y(), o.x() + o.width(), o.y() + o.height());
+            }
+            for (int i = 0, n = scene.textCount(layer); i < n; i++) {
+                Scene.Text t = scene.text(layer, i);
+                int h = mix(salt ^ t.text().hashCode() ^ t.color().getRGB() * 31, t.x(), t.y(), t.align().ordinal(), 0);
+                // exact text width depends on the backend's font; assume it can reach the
+                // edge of the screen on the side it grows towards
+                double left = switch (t.align()) {
+                    case LEFT -> t.x();
+                    case RIGHT, CENTER -> originX;
+                };
+                double right = switch (t.align()) {
+                    case RIGHT -> t.x();
+                    case LEFT, CENTER -> originX + cols;
+                };
+                fold(h, left, t.y() - 0.5, right, t.y() + 0.5);
+            }
+        }
+
+        damagedCells = 0;
+        for (int c = 0; c < current.length; c++) {
+            boolean changed = fullDamage || current[c] != previous[c];
+            damaged[c] = changed;
+            if (changed) {
+                damagedCells += 1;
+            }
+        }
+        fullDamage = false;
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        buildRects();
+        return damagedCells;
+    }
+
+    private static int mix(int h, double a, double b, double c, double d) {
+        h = h * 31 + Double.hashCode(a);
+        h = h * 31 + Double.hashCode(b);
+        h = h * 31 + Double.hashCode(c);
+        h = h * 31 + Double.hashCode(d);
+        return h;
+    }
+
+    // Fold an element hash into every cell its bounds touch, in draw order
+    private void fold(int h, double left, double bottom, double right, double top) {
+        int c0 = Math.max(0, (int) Math.floor(left - originX));
+        int c1 = Math.min(cols - 1, (int) Math.ceil(right - originX) - 1);
+        int r0 = Math.max(0, (int) Math.floor(bottom - originY));
+        int r1 = Math.min(rows - 1, (int) Math.ceil(top - originY) - 1);
+        for (int c = c0; c <= c1; c++) {
+            int base = c * rows;
+            for (int r = r0; r <= r1; r++) {
+                current[base + r] = current[base + r] * 31 + h;
+            }
+        }
+    }
+
+    // Row runs of damaged cells; a run with the same span as one directly below extends it
+    private void buildRects() {
+        rectPool.addAll(rects);
+        rects.clear();
+        if (damagedCells == 0) {
+            return;
+        }
+        Arrays.fill(openRect, -1);
+        for (int r = 0; r < rows; r++) {
+            int c = 0;
+            while (c < cols) {
+                if (!damaged[c * rows + r]) {
+                    c++;
+                    continue;
+                }
+                int start = c;
+                while (c < cols && damaged[c * rows + r]) {
+                    c++;
+                }
+                int width = c - start;
+                int open = openRect[start];
+                Rectangle below = open >= 0 ? rects.get(open) : null;
+                if (below != null && below.width == width && below.y + below.height == r) {
+                    below.height += 1;
+                } else {
+                    Rectangle rect = rectPool.isEmpty() ? new Rectangle() : rectPool.remove(rectPool.size() - 1);
+                    rect.setBounds(start, r, width, 1);
+                    rects.add(rect);
+                    openRect[start] = rects.size() - 1;
+                }
+            }
+        }
+    }
+}
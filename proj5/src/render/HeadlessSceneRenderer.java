@@ -0,0 +1,55 @@
+package render;
+
+/**
+ * Draws nothing; counts what a frame would have drawn. Lets replays and benchmarks
+ * run the whole scene-building path without a window (java.awt.headless=true).
+ */
+public class HeadlessSceneRenderer implements SceneRenderer {
+    private long frames;
+    private long sprites;
+    private long overlays;
+    private long texts;
+    private DamageTracker damage;
+    private long damagedCells;
+    private long idleFrames;
+
+    @Override
+    public void initialize(int widthTiles, int heightTiles, int tilePixels, int xOffset, int yOffset) {
+        damage = new DamageTracker(widthTiles, heightTiles, xOffset, yOffset);
+    }
+
+    @Override
+    public void render(Scene scene) {
+        for (Scene.Layer layer : scene.drawOrder()) {
+            sprites += scene.spriteCount(layer);
+            overlays += scene.overlayCount(layer);
+            texts += scene.textCount(layer);
+        }
+        frames += 1;
+        if (damage != null) {
+            int cells = damage.compute(scene);
+            damagedCells += cells;
+            if (cells == 0) {
+                idleFrames += 1;
+            }
+        }
+    }
+
+    public long frames() {
+        return frames;
+    }
+
+    /** e.g. "120 frames, 412.3 sprites / 380.0 overlays / 2.0 texts per frame" */
+    public String summary() {
+        if (frames == 0) {
+            return "0 frames";
+        }
+        String counts = String.format("%d frames, %.1f sprites / %.1f overlays / %.1f texts per frame",
+                frames, (double) sprites / frames, (double) overlays / frames, (double) texts / frames);
+        if (damage == null) {
+            return counts;
+        }
+        return counts + String.format(", %.1f%% of cells damaged, %d idle frames",
+                100.0 * damagedCells / ((double) frames * damage.totalCells()), idleFrames);
+    }
+}
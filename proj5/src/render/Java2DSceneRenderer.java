@@ -0,0 +1,511 @@
+package render;
+
+import edu.princeton.cs.algs4.StdDraw;
+import tileengine.TETile;
+import tileengine.TextureAtlas;
+
+import javax.imageio.ImageIO;
+import javax.swing.JFrame;
+import java.awt.AlphaComposite;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.Transparency;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionAdapter;
+import java.awt.event.MouseMotionListener;
+import java.awt.geom.Area;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Draws scenes straight to a hardware-backed {@link Canvas} through a {@link BufferStrategy}.
+ *
+ * Compared to the StdDraw path this skips StdDraw's per-call coordinate transforms and
+ * its file-path image lookups: sprites are sub-rectangle blits out of the
+ * {@link TextureAtlas} pages when drawn at their native size. At any other size (zoom
+ * levels, two-tile actors) a copy pre-scaled to exactly that size comes from a bounded
+ * {@link ScaledImageCache}, so no blit ever scales. Runs of same-colored overlays (the
+ * lighting mask) are merged into single fills. Text is rasterized once per distinct
+ * string and color into a small image cache, so an unchanged HUD line is a single blit.
+ *
+ * Frames are composited into a retained image. A {@link DamageTracker} diffs each scene
+ * against the previous one and only the changed cells are redrawn (clipped); a frame
+ * with no changes is not drawn or presented at all.
+ *
+ * The canvas replaces the contents of StdDraw's window, and StdDraw's own listener is
+ * attached to it, so keyboard input keeps working through StdDraw. The window is
+ * resizable; the mouse is tracked here since StdDraw's mapping assumes the original size.
+ */
+public class Java2DSceneRenderer implements SceneRenderer {
+    private static final long SCALED_CACHE_BYTES = 64L << 20;
+    private static final int TEXT_CACHE_ENTRIES = 256;
+
+    private TextureAtlas atlas;
+    private BufferedImage[] atlasPages;
+    private volatile TextureAtlas pendingAtlas; // loaded in the background, swapped in on the next frame
+
+    private Canvas canvas;
+    private BufferStrategy strategy;
+    private int widthTiles;
+    private int heightTiles;
+    private int tilePixels;
+    private int xOffset;
+    private int yOffset;
+    private Font font;
+    private GraphicsConfiguration config;
+
+    private BufferedImage composite;         // last full frame, patched in place
+    private DamageTracker damage;
+    private volatile boolean exposed = true; // window needs the composite shown again
+    private final Rectangle dirty = new Rectangle();
+    private volatile int mouseX = -1; // canvas pixels
+    private volatile int mouseY = -1;
+
+    // Images that aren't in the atlas, decoded once by path (null value: unreadable)
+    private final Map<String, BufferedImage> images = new HashMap<>();
+    private final ScaledImageCache scaled = new ScaledImageCache(SCALED_CACHE_BYTES);
+
+    // Rendered text lines in the current font, least recently drawn dropped first
+    private record TextKey(String text, int rgb) { }
+    private final LinkedHashMap<TextKey, BufferedImage> textImages = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TextKey, BufferedImage> eldest) {
+            return size() > TEXT_CACHE_ENTRIES;
+        }
+    };
+
+    public Java2DSceneRenderer() {
+        this(TextureAtlas.empty());
+    }
+
+    public Java2DSceneRenderer(TextureAtlas atlas) {
+        useAtlas(atlas);
+    }
+
+    /**
+     * Switch to an atlas that finished loading after the renderer was created. Safe from
+     * any thread; takes effect at the start of the next frame, which is then fully redrawn.
+     * Until then sprites are drawn from their individual image files.
+     */
+    public void setAtlas(TextureAtlas atlas) {
+        pendingAtlas = atlas;
+    }
+
+    private void useAtlas(TextureAtlas next) {
+        BufferedImage[] pages = new BufferedImage[next.pageCount()];
+        for (int i = 0; i < pages.length; i++) {
+            BufferedImage page = next.page(i);
+            boolean same = atlas != null && i < atlas.pageCount() && atlas.page(i) == page;
+            if (same && (config == null || atlasPages[i] != page)) {
+                pages[i] = atlasPages[i]; // unchanged by a hot reload, keep the copy we made
+            } else {
+                // copy into the display's native format once there is one, so blits can be accelerated
+                pages[i] = config != null ? copyCompatible(page) : page;
+            }
+        }
+        atlas = next;
+        atlasPages = pages;
+        images.clear(); // images outside the atlas may have changed on disk too
+        scaled.clear();
+    }
+
+    @Override
+    public void initialize(int widthTiles, int heightTiles, int tilePixels, int xOffset, int yOffset) {
+        this.widthTiles = widthTiles;
+        this.heightTiles = heightTiles;
+        this.tilePixels = tilePixels;
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+        setFont(tilePixels);
+        images.clear();
+        scaled.clear();
+
+        int widthPx = widthTiles * tilePixels;
+        int heightPx = heightTiles * tilePixels;
+        // Let StdDraw build its window and scale so input coordinates still line up
+        StdDraw.setCanvasSize(widthPx, heightPx);
+        StdDraw.setXscale(xOffset, xOffset + widthTiles);
+        StdDraw.setYscale(yOffset, yOffset + heightTiles);
+
+        JFrame frame = StdDrawWindow.frame();
+        canvas = new Canvas() {
+            // OS expose events: re-present the composite on the next frame (see needsPresent)
+            @Override
+            public void paint(Graphics g) {
+                exposed = true;
+            }
+
+            @Override
+            public void update(Graphics g) {
+                exposed = true;
+            }
+        };
+        canvas.setPreferredSize(new Dimension(widthPx, heightPx));
+        canvas.setFocusable(false); // keys keep going to the frame, where StdDraw listens
+        Object listener = StdDrawWindow.listener();
+        canvas.addMouseListener((MouseListener) listener);
+        canvas.addMouseMotionListener((MouseMotionListener) listener);
+        canvas.addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                mouseX = e.getX();
+                mouseY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                mouseMoved(e);
+            }
+        });
+
+        frame.getContentPane().removeAll();
+        frame.getContentPane().add(canvas);
+        frame.setResizable(true);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+        canvas.createBufferStrategy(2);
+        strategy = canvas.getBufferStrategy();
+        config = canvas.getGraphicsConfiguration();
+        useAtlas(atlas);
+        composite = config.createCompatibleImage(widthPx, heightPx, Transparency.OPAQUE);
+        damage = new DamageTracker(widthTiles, heightTiles, xOffset, yOffset);
+        exposed = true;
+    }
+
+    @Override
+    public boolean needsPresent() {
+        return exposed || pendingAtlas != null; // a hot-reloaded atlas must show even when idle
+    }
+
+    @Override
+    public Dimension surfaceSize() {
+        return canvas == null ? null : canvas.getSize();
+    }
+
+    @Override
+    public void resize(int widthTiles, int heightTiles) {
+        if (canvas == null || (widthTiles == this.widthTiles && heightTiles == this.heightTiles)) {
+            return;
+        }
+        this.widthTiles = widthTiles;
+        this.heightTiles = heightTiles;
+        composite = config.createCompatibleImage(widthTiles * tilePixels, heightTiles * tilePixels,
+                Transparency.OPAQUE);
+        damage = new DamageTracker(widthTiles, heightTiles, xOffset, yOffset);
+        canvas.createBufferStrategy(2); // back buffers are sized to the canvas when created
+        strategy = canvas.getBufferStrategy();
+        exposed = true;
+    }
+
+    @Override
+    public Point2D.Double mouseTile() {
+        if (mouseX < 0) {
+            return new Point2D.Double(-1, -1);
+        }
+        return new Point2D.Double(xOffset + (double) mouseX / tilePixels,
+                yOffset + heightTiles - (double) mouseY / tilePixels);
+    }
+
+    private BufferedImage copyCompatible(BufferedImage source) {
+        BufferedImage out = config.createCompatibleImage(source.getWidth(), source.getHeight(),
+                Transparency.TRANSLUCENT);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    @Override
+    public void render(Scene scene) {
+        if (strategy == null) {
+            return;
+        }
+        TextureAtlas next = pendingAtlas;
+        if (next != null) {
+            pendingAtlas = null;
+            useAtlas(next);
+            damage.invalidate(); // sprites may now come out of the atlas: repaint everything
+        }
+        int damagedCells = damage.compute(scene);
+        if (damagedCells == 0 && !exposed) {
+            return; // idle frame: what's on screen is still correct
+        }
+        if (damagedCells > 0) {
+            recomposite(scene);
+        }
+        exposed = false;
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    g.drawImage(composite, 0, 0, null);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    // Redraw only the damaged cells of the retained composite
+    private void recomposite(Scene scene) {
+        Area clip = null;
+        Rectangle single = null;
+        for (int i = 0; i < damage.rectCount(); i++) {
+            Rectangle cells = damage.rect(i);
+            Rectangle pixels = new Rectangle(cells.x * tilePixels,
+                    (heightTiles - cells.y - cells.height) * tilePixels,
+                    cells.width * tilePixels, cells.height * tilePixels);
+            if (single == null) {
+                single = pixels;
+                dirty.setBounds(pixels);
+            } else {
+                if (clip == null) {
+                    clip = new Area(single);
+                }
+                clip.add(new Area(pixels));
+                dirty.add(pixels);
+            }
+        }
+        Graphics2D g = composite.createGraphics();
+        try {
+            g.setClip(clip != null ? clip : single);
+            g.setColor(scene.clearColor());
+            g.fill(dirty);
+            paint(scene, g, dirty);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Draw every element that touches the bounds (pixel space); the caller clears and clips
+    private void paint(Scene scene, Graphics2D g, Rectangle bounds) {
+        g.setFont(font);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        for (Scene.Layer layer : scene.drawOrder()) {
+            for (int i = 0, n = scene.spriteCount(layer); i < n; i++) {
+                drawSprite(g, scene.sprite(layer, i), bounds);
+            }
+            drawOverlays(g, scene, layer, bounds);
+            for (int i = 0, n = scene.textCount(layer); i < n; i++) {
+                drawText(g, scene.text(layer, i), bounds);
+            }
+        }
+    }
+
+    // Tile units -> pixels (y flips: tile space grows up, pixel space grows down)
+    private int px(double x) {
+        return (int) Math.round((x - xOffset) * tilePixels);
+    }
+
+    private int py(double y) {
+        return (int) Math.round((yOffset + heightTiles - y) * tilePixels);
+    }
+
+    private void drawSprite(Graphics2D g, Scene.Sprite s, Rectangle bounds) {
+        TETile tile = s.tile();
+        int left = px(s.x() - s.width() / 2.0);
+        int top = py(s.y() + s.height() / 2.0);
+        int w = px(s.x() + s.width() / 2.0) - left;
+        int h = py(s.y() - s.height() / 2.0) - top;
+        if (w <= 0 || h <= 0 || !bounds.intersects(left, top, w, h)) {
+            return;
+        }
+        TextureAtlas.Region region = atlas.region(tile);
+        if (region != null) {
+            if (region.width() == w && region.height() == h) {
+                g.drawImage(atlasPages[region.page()], left, top, left + w, top + h,
+                        region.x(), region.y(), region.x() + w, region.y() + h, null);
+            } else {
+                g.drawImage(scaledRegion(region, w, h), left, top, null);
+            }
+            return;
+        }
+        BufferedImage image = tile.filepath() == null ? null : scaledImage(tile.filepath(), w, h);
+        if (image != null) {
+            g.drawImage(image, left, top, null);
+            return;
+        }
+        // no image: background square plus the tile character, like TETile.draw
+        g.setColor(tile.backgroundColor());
+        g.fillRect(left, top, w, h);
+        g.setColor(tile.textColor());
+        String text = Character.toString(tile.character());
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(text, left + (w - metrics.stringWidth(text)) / 2.0f,
+                top + h / 2.0f + metrics.getDescent());
+    }
+
+    // Consecutive same-color overlays stacked in a column become one fillRect
+    private void drawOverlays(Graphics2D g, Scene scene, Scene.Layer layer, Rectangle bounds) {
+        int n = scene.overlayCount(layer);
+        int i = 0;
+        while (i < n) {
+            Scene.Overlay first = scene.overlay(layer, i);
+            double top = first.y() + first.height();
+            int j = i + 1;
+            while (j < n) {
+                Scene.Overlay next = scene.overlay(layer, j);
+                if (next.color() != first.color() || next.x() != first.x()
+                        || next.width() != first.width() || next.y() != top) {
+                    break;
+                }
+                top = next.y() + next.height();
+                j++;
+            }
+            int left = px(first.x());
+            int pixelTop = py(top);
+            int w = px(first.x() + first.width()) - left;
+            int h = py(first.y()) - pixelTop;
+            if (bounds.intersects(left, pixelTop, w, h)) {
+                g.setColor(first.color());
+                g.fillRect(left, pixelTop, w, h);
+            }
+            i = j;
+        }
+    }
+
+    private void setFont(int tilePixels) {
+        if (font == null || font.getSize() != tilePixels - 2) {
+            font = new Font("Monaco", Font.BOLD, tilePixels - 2);
+            textImages.clear();
+        }
+    }
+
+    // Same anchoring as StdDraw.text/textLeft/textRight
+    private void drawText(Graphics2D g, Scene.Text t, Rectangle bounds) {
+        if (t.text().isEmpty()) {
+            return;
+        }
+        BufferedImage image = textImage(g, t.text(), t.color());
+        FontMetrics metrics = g.getFontMetrics();
+        int width = image.getWidth();
+        int x = px(t.x());
+        switch (t.align()) {
+            case CENTER -> x -= width / 2;
+            case RIGHT -> x -= width;
+            default -> { }
+        }
+        int top = py(t.y()) + metrics.getDescent() - metrics.getAscent();
+        if (bounds.intersects(x, top, width, image.getHeight())) {
+            g.drawImage(image, x, top, null);
+        }
+    }
+
+    // The line rendered once in the current font; later frames just blit it
+    private BufferedImage textImage(Graphics2D g, String text, Color color) {
+        TextKey key = new TextKey(text, color.getRGB());
+        BufferedImage image = textImages.get(key);
+        if (image != null) {
+            return image;
+        }
+        FontMetrics metrics = g.getFontMetrics();
+        int w = Math.max(1, metrics.stringWidth(text));
+        int h = Math.max(1, metrics.getAscent() + metrics.getDescent());
+        image = config != null
+                ? config.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D tg = image.createGraphics();
+        try {
+            tg.setFont(font);
+            tg.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            tg.setColor(color);
+            tg.drawString(text, 0, metrics.getAscent());
+        } finally {
+            tg.dispose();
+        }
+        textImages.put(key, image);
+        return image;
+    }
+
+    private BufferedImage scaledRegion(TextureAtlas.Region region, int w, int h) {
+        BufferedImage image = scaled.get(region, w, h);
+        if (image == null) {
+            BufferedImage page = atlasPages[region.page()];
+            image = scale(page.getSubimage(region.x(), region.y(), region.width(), region.height()), w, h);
+            scaled.put(region, w, h, image);
+        }
+        return image;
+    }
+
+    private BufferedImage scaledImage(String path, int w, int h) {
+        BufferedImage source;
+        if (images.containsKey(path)) {
+            source = images.get(path);
+        } else {
+            source = load(path);
+            images.put(path, source);
+        }
+        if (source == null) {
+            return null;
+        }
+        if (source.getWidth() == w && source.getHeight() == h) {
+            return source;
+        }
+        BufferedImage image = scaled.get(path, w, h);
+        if (image == null) {
+            image = scale(source, w, h);
+            scaled.put(path, w, h, image);
+        }
+        return image;
+    }
+
+    // Sprites are drawn pre-scaled, so this is the only resampling. The 48-512 px assets
+    // shrink to tile size, where bilinear keeps detail that nearest neighbor would drop.
+    private BufferedImage scale(BufferedImage source, int w, int h) {
+        BufferedImage out = config != null
+                ? config.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    // File first, then classpath, like StdDraw.picture
+    private static BufferedImage load(String path) {
+        try {
+            File file = new File(path);
+            if (file.isFile()) {
+                return ImageIO.read(file);
+            }
+            try (InputStream in = Java2DSceneRenderer.class.getResourceAsStream("/" + path)) {
+                if (in != null) {
+                    return ImageIO.read(in);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Render] Unable to load image: " + path);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package render;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pre-scaled copies of sprite images keyed by source and target pixel size. Each
+ * (image, size) pair - in practice each image per zoom level - is scaled once, and the
+ * least recently drawn copies are dropped once their pixel memory passes the budget.
+ */
+final class ScaledImageCache {
+    // Mutable so per-sprite lookups don't allocate; stored keys are never mutated
+    private static final class Key {
+        Object source;
+        int width;
+        int height;
+
+        Key set(Object source, int width, int height) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.width == width && k.height == height && k.source.equals(source);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, width, height);
+        }
+    }
+
+    private final long budgetBytes;
+    private long usedBytes;
+    private final Key probe = new Key();
+    private final LinkedHashMap<Key, BufferedImage> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    ScaledImageCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /** The cached copy of source at width x height, or null. Marks it recently used. */
+    BufferedImage get(Object source, int width, int height) {
+        return entries.get(probe.set(source, width, height));
+    }
+
+    void put(Object source, int width, int height, BufferedImage image) {
+        BufferedImage old = entries.put(new Key().set(source, width, height), image);
+        if (old != null) {
+            usedBytes -= bytes(old);
+        }
+        usedBytes += bytes(image);
+        Iterator<Map.Entry<Key, BufferedImage>> it = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && entries.size() > 1 && it.hasNext()) {
+            BufferedImage evicted = it.next().getValue();
+            if (evicted == image) {
+                continue;
+            }
+            usedBytes -= bytes(evicted);
+            it.remove();
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private static long bytes(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+}
@@ -4,82 +4,316 @@ import tileengine.TETile;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
- * A renderable snapshot of the world. A {@code Scene} is built by the game logic
- * and handed to the renderer so drawing code does not need to know about domain
- * objects like NPCs or items. Sprites and overlays are organized into ordered
- * layers so the renderer can simply iterate and draw them front-to-back.
+ * A renderable snapshot of one frame. A {@code Scene} is filled by the game logic
+ * and handed to a {@link SceneRenderer} so drawing code does not need to know about
+ * domain objects like NPCs or items. Sprites, overlays and text are organized into
+ * ordered layers so the renderer can simply iterate and draw them back-to-front.
+ *
+ * Coordinates are screen tile units (camera already applied), the same space StdDraw's
+ * scale is set to. Element objects are pooled: {@link #clear()} only resets counts, so
+ * filling a scene every frame allocates nothing once the pools have grown. Anything
+ * entirely outside the viewport is culled on add.
  */
 public class Scene {
-    /** Draw order for sprites and overlays. Layers earlier in the enum are drawn first. */
+    /** Draw order. Layers earlier in the enum are drawn first. */
     public enum Layer {
         BACKGROUND,
         DECOR,
         ITEMS,
-        ACTORS_BEHIND,
-        PLAYER,
-        ACTORS_FRONT,
-        FOREGROUND,
-        OVERLAY
+        /** Walls and actors, already in painter's order by row (see TERenderer.drawDepthSorted). */
+        DEPTH_SORTED,
+        OVERLAY,
+        HUD
     }
 
+    private static final Layer[] LAYERS = Layer.values();
+
+    public enum Align { LEFT, CENTER, RIGHT }
+
     /**
-     * A single drawable tile at the given world coordinate. {@code tileSize}
-     * is measured in tile units to support oversized sprites.
+     * A tile image drawn centered on (x, y), stretched to width x height tiles.
+     * Mutable and owned by the scene's pool - don't keep references across frames.
      */
-    public record Sprite(TETile tile, double x, double y, double tileSize) {
-        public Sprite {
-            if (tile == null) {
-                throw new IllegalArgumentException("Sprite tile cannot be null");
-            }
+    public static final class Sprite {
+        TETile tile;
+        double x;
+        double y;
+        double width;
+        double height;
+
+        public TETile tile() {
+            return tile;
+        }
+
+        public double x() {
+            return x;
+        }
+
+        public double y() {
+            return y;
+        }
+
+        public double width() {
+            return width;
+        }
+
+        public double height() {
+            return height;
         }
     }
 
     /**
-     * A colored square overlay drawn on top of sprite layers. Useful for
-     * lighting or highlight effects without coupling to the renderer.
+     * A filled rectangle (bottom-left corner at x, y). Useful for lighting or
+     * highlight effects without coupling to the renderer.
      */
-    public record Overlay(Color color, double x, double y, double tileSize) {
-        public Overlay {
-            if (color == null) {
-                throw new IllegalArgumentException("Overlay color cannot be null");
+    public static final class Overlay {
+        Color color;
+        double x;
+        double y;
+        double width;
+        double height;
+
+        public Color color() {
+            return color;
+        }
+
+        public double x() {
+            return x;
+        }
+
+        public double y() {
+            return y;
+        }
+
+        public double width() {
+            return width;
+        }
+
+        public double height() {
+            return height;
+        }
+    }
+
+    /** A line of text in the renderer's font; x is the left, center or right edge per align. */
+    public static final class Text {
+        String text;
+        double x;
+        double y;
+        Color color;
+        Align align;
+
+        public String text() {
+            return text;
+        }
+
+        public double x() {
+            return x;
+        }
+
+        public double y() {
+            return y;
+        }
+
+        public Color color() {
+            return color;
+        }
+
+        public Align align() {
+            return align;
+        }
+    }
+
+    // Grow-only pool of elements with a live count
+    private static final class Pool<T> {
+        private final ArrayList<T> items = new ArrayList<>();
+        private final Supplier<T> factory;
+        private int size;
+
+        Pool(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        T next() {
+            if (size == items.size()) {
+                items.add(factory.get());
+            }
+            return items.get(size++);
+        }
+
+        T get(int i) {
+            if (i >= size) {
+                throw new IndexOutOfBoundsException(i);
             }
+            return items.get(i);
+        }
+
+        List<T> live() {
+            return Collections.unmodifiableList(items.subList(0, size));
         }
     }
 
-    private final Map<Layer, List<Sprite>> spritesByLayer = new EnumMap<>(Layer.class);
-    private final Map<Layer, List<Overlay>> overlaysByLayer = new EnumMap<>(Layer.class);
+    private final Pool<Sprite>[] sprites;
+    private final Pool<Overlay>[] overlays;
+    private final Pool<Text>[] texts;
+    private Color clearColor = Color.BLACK;
+
+    // Culling window in screen tile units; infinite until setViewport is called
+    private double viewMinX = Double.NEGATIVE_INFINITY;
+    private double viewMinY = Double.NEGATIVE_INFINITY;
+    private double viewMaxX = Double.POSITIVE_INFINITY;
+    private double viewMaxY = Double.POSITIVE_INFINITY;
 
     public Scene() {
-        for (Layer layer : Layer.values()) {
-            spritesByLayer.put(layer, new ArrayList<>());
-            overlaysByLayer.put(layer, new ArrayList<>());
+        sprites = pools(Sprite::new);
+        overlays = pools(Overlay::new);
+        texts = pools(Text::new);
+    }
+
+    // One pool per layer; generic arrays can't be created directly
+    @SuppressWarnings("unchecked")
+    private static <T> Pool<T>[] pools(Supplier<T> factory) {
+        Pool<T>[] pools = (Pool<T>[]) new Pool<?>[LAYERS.length];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new Pool<>(factory);
         }
+        return pools;
     }
 
+    /** Empty every layer, keeping the pooled elements for reuse. */
+    public void clear() {
+        for (int i = 0; i < LAYERS.length; i++) {
+            sprites[i].size = 0;
+            overlays[i].size = 0;
+            texts[i].size = 0;
+        }
+        clearColor = Color.BLACK;
+    }
+
+    public void setViewport(double minX, double minY, double maxX, double maxY) {
+        viewMinX = minX;
+        viewMinY = minY;
+        viewMaxX = maxX;
+        viewMaxY = maxY;
+    }
+
+    private boolean culled(double left, double bottom, double right, double top) {
+        return right <= viewMinX || left >= viewMaxX || top <= viewMinY || bottom >= viewMaxY;
+    }
+
+    public Color clearColor() {
+        return clearColor;
+    }
+
+    public void setClearColor(Color clearColor) {
+        this.clearColor = clearColor;
+    }
+
+    /** A one-tile sprite filling the cell whose bottom-left corner is (x, y). */
     public void addSprite(Layer layer, TETile tile, double x, double y) {
         addSprite(layer, tile, x, y, 1.0);
     }
 
+    /** A square sprite of tileSize tiles with its bottom-left corner at (x, y). */
     public void addSprite(Layer layer, TETile tile, double x, double y, double tileSize) {
-        spritesByLayer.get(layer).add(new Sprite(tile, x, y, tileSize));
+        double half = tileSize / 2.0;
+        addSpriteCentered(layer, tile, x + half, y + half, tileSize, tileSize);
+    }
+
+    public void addSpriteCentered(Layer layer, TETile tile, double centerX, double centerY,
+                                  double width, double height) {
+        if (tile == null) {
+            throw new IllegalArgumentException("Sprite tile cannot be null");
+        }
+        double hw = width / 2.0;
+        double hh = height / 2.0;
+        if (culled(centerX - hw, centerY - hh, centerX + hw, centerY + hh)) {
+            return;
+        }
+        Sprite s = sprites[layer.ordinal()].next();
+        s.tile = tile;
+        s.x = centerX;
+        s.y = centerY;
+        s.width = width;
+        s.height = height;
     }
 
     public void addOverlay(Layer layer, Color color, double x, double y, double tileSize) {
-        overlaysByLayer.get(layer).add(new Overlay(color, x, y, tileSize));
+        addRect(layer, color, x, y, tileSize, tileSize);
+    }
+
+    public void addRect(Layer layer, Color color, double x, double y, double width, double height) {
+        if (color == null) {
+            throw new IllegalArgumentException("Overlay color cannot be null");
+        }
+        if (culled(x, y, x + width, y + height)) {
+            return;
+        }
+        Overlay o = overlays[layer.ordinal()].next();
+        o.color = color;
+        o.x = x;
+        o.y = y;
+        o.width = width;
+        o.height = height;
+    }
+
+    public void addText(Layer layer, String text, double x, double y, Color color, Align align) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        Text t = texts[layer.ordinal()].next();
+        t.text = text;
+        t.x = x;
+        t.y = y;
+        t.color = color;
+        t.align = align;
+    }
+
+    // Index access for renderers - no iterator or view allocation per frame
+
+    public int spriteCount(Layer layer) {
+        return sprites[layer.ordinal()].size;
+    }
+
+    public Sprite sprite(Layer layer, int i) {
+        return sprites[layer.ordinal()].get(i);
+    }
+
+    public int overlayCount(Layer layer) {
+        return overlays[layer.ordinal()].size;
+    }
+
+    public Overlay overlay(Layer layer, int i) {
+        return overlays[layer.ordinal()].get(i);
+    }
+
+    public int textCount(Layer layer) {
+        return texts[layer.ordinal()].size;
+    }
+
+    public Text text(Layer layer, int i) {
+        return texts[layer.ordinal()].get(i);
     }
 
     public List<Sprite> sprites(Layer layer) {
-        return Collections.unmodifiableList(spritesByLayer.get(layer));
+        return sprites[layer.ordinal()].live();
     }
 
     public List<Overlay> overlays(Layer layer) {
-        return Collections.unmodifiableList(overlaysByLayer.get(layer));
+        return overlays[layer.ordinal()].live();
+    }
+
+    public List<Text> texts(Layer layer) {
+        return texts[layer.ordinal()].live();
     }
 
+    /** Within a layer: sprites, then overlays, then text. */
     public List<Layer> drawOrder() {
-        return Collections.unmodifiableList(Arrays.asList(Layer.values()));
+        return Collections.unmodifiableList(Arrays.asList(LAYERS));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package render;
+
+import java.awt.Dimension;
+import java.awt.geom.Point2D;
+
+/**
+ * A backend that turns a filled {@link Scene} into pixels (or nothing). Game code only
+ * ever builds scenes, so backends can be swapped without touching it.
+ */
+public interface SceneRenderer {
+    /**
+     * Open/size the output surface.
+     * @param widthTiles  surface width in tiles
+     * @param heightTiles surface height in tiles
+     * @param tilePixels  pixel size of one tile
+     * @param xOffset     screen tile coordinate of the left edge
+     * @param yOffset     screen tile coordinate of the bottom edge
+     */
+    void initialize(int widthTiles, int heightTiles, int tilePixels, int xOffset, int yOffset);
+
+    /** Draw the scene and present it as one frame. */
+    void render(Scene scene);
+
+    /**
+     * True when the backend has to present again even if the scene didn't change, e.g. the
+     * window was uncovered or a new atlas is waiting. Callers that skip unchanged frames
+     * check this first.
+     */
+    default boolean needsPresent() {
+        return false;
+    }
+
+    /** Current drawable size in pixels if the user can resize the output, otherwise null. */
+    default Dimension surfaceSize() {
+        return null;
+    }
+
+    /** Adopt a new tile grid on the existing surface after it was resized. */
+    default void resize(int widthTiles, int heightTiles) {
+    }
+
+    /** Mouse position in screen tile units, or null when StdDraw tracks the mouse. */
+    default Point2D.Double mouseTile() {
+        return null;
+    }
+
+    default void close() {
+    }
+}
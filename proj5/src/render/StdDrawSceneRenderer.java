@@ -0,0 +1,71 @@
+package render;
+
+import edu.princeton.cs.algs4.StdDraw;
+import tileengine.TERenderer;
+
+import java.awt.Color;
+import java.awt.Font;
+
+/**
+ * The original StdDraw output path: every element becomes a StdDraw call against the
+ * global double buffer, then {@code StdDraw.show()} presents the frame.
+ *
+ * StdDraw can't clip, so partial redraws would smear overlapping sprites; frames are
+ * either skipped entirely (nothing changed) or redrawn in full.
+ */
+public class StdDrawSceneRenderer implements SceneRenderer {
+    private DamageTracker damage;
+
+    @Override
+    public void initialize(int widthTiles, int heightTiles, int tilePixels, int xOffset, int yOffset) {
+        StdDraw.setCanvasSize(widthTiles * tilePixels, heightTiles * tilePixels);
+        TERenderer.centerStdDraw();
+        StdDraw.setFont(new Font("Monaco", Font.BOLD, tilePixels - 2));
+        StdDraw.setXscale(xOffset, xOffset + widthTiles);
+        StdDraw.setYscale(yOffset, yOffset + heightTiles);
+        StdDraw.clear(new Color(0, 0, 0));
+
+        StdDraw.enableDoubleBuffering();
+        StdDraw.show();
+        damage = new DamageTracker(widthTiles, heightTiles, xOffset, yOffset);
+    }
+
+    @Override
+    public void render(Scene scene) {
+        if (damage != null && damage.compute(scene) == 0) {
+            return;
+        }
+        StdDraw.clear(scene.clearColor());
+        Color pen = null;
+        for (Scene.Layer layer : scene.drawOrder()) {
+            for (int i = 0, n = scene.spriteCount(layer); i < n; i++) {
+                Scene.Sprite s = scene.sprite(layer, i);
+                s.tile().drawCentered(s.x(), s.y(), s.width(), s.height());
+                pen = null; // tile fallback drawing changes the pen
+            }
+            for (int i = 0, n = scene.overlayCount(layer); i < n; i++) {
+                Scene.Overlay o = scene.overlay(layer, i);
+                // lighting emits long runs of the same color; skip redundant pen changes
+                if (o.color() != pen) {
+                    pen = o.color();
+                    StdDraw.setPenColor(pen);
+                }
+                StdDraw.filledRectangle(o.x() + o.width() / 2.0, o.y() + o.height() / 2.0,
+                        o.width() / 2.0, o.height() / 2.0);
+            }
+            for (int i = 0, n = scene.textCount(layer); i < n; i++) {
+                Scene.Text t = scene.text(layer, i);
+                if (t.color() != pen) {
+                    pen = t.color();
+                    StdDraw.setPenColor(pen);
+                }
+                switch (t.align()) {
+                    case LEFT -> StdDraw.textLeft(t.x(), t.y(), t.text());
+                    case RIGHT -> StdDraw.textRight(t.x(), t.y(), t.text());
+                    default -> StdDraw.text(t.x(), t.y(), t.text());
+                }
+            }
+        }
+        StdDraw.show();
+    }
+}
@@ -0,0 +1,38 @@
+package render;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+import javax.swing.JFrame;
+import java.lang.reflect.Field;
+
+/**
+ * StdDraw doesn't expose its window or its input listener, but backends that take over
+ * the window need both. The reflection lives here so it's in one place.
+ */
+public final class StdDrawWindow {
+    private StdDrawWindow() {
+    }
+
+    /** StdDraw's JFrame (created by setCanvasSize / first use). */
+    public static JFrame frame() {
+        return (JFrame) staticField("frame");
+    }
+
+    /**
+     * StdDraw's listener instance (it implements the mouse/key listener interfaces).
+     * Attaching it to another component keeps StdDraw.mouseX()/isKeyPressed() working.
+     */
+    public static Object listener() {
+        return staticField("std");
+    }
+
+    private static Object staticField(String name) {
+        try {
+            Field f = StdDraw.class.getDeclaredField(name);
+            f.setAccessible(true);
+            return f.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("StdDraw has no field " + name, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package tileengine;
+
+/**
+ * A looping sequence of frames evaluated from a shared clock instead of a per-entity
+ * counter. Any number of entities can play the same clip; each only keeps a phase (in
+ * ticks) so they don't all step in lockstep.
+ *
+ * Time is in simulation ticks and may be fractional, so a renderer can ask for the frame
+ * between two ticks and frame durations needn't be whole ticks.
+ */
+public final class AnimationClip {
+    private final TETile[] frames;
+    private final double ticksPerFrame;
+
+    public AnimationClip(TETile[] frames, double ticksPerFrame) {
+        if (frames == null || frames.length == 0) {
+            throw new IllegalArgumentException("Animation clip needs at least one frame");
+        }
+        if (ticksPerFrame <= 0) {
+            throw new IllegalArgumentException("Frame duration must be positive: " + ticksPerFrame);
+        }
+        this.frames = frames.clone();
+        this.ticksPerFrame = ticksPerFrame;
+    }
+
+    /** The frame showing at the given time for an entity with the given phase. */
+    public TETile frameAt(double time, int phase) {
+        long index = (long) Math.floor((time + phase) / ticksPerFrame);
+        return frames[(int) Math.floorMod(index, (long) frames.length)];
+    }
+
+    /** The resting frame, e.g. standing still. */
+    public TETile first() {
+        return frames[0];
+    }
+
+    public int frameCount() {
+        return frames.length;
+    }
+
+    /** Ticks for one full loop; phases are only meaningful modulo this. */
+    public double lengthTicks() {
+        return frames.length * ticksPerFrame;
+    }
+}
@@ -0,0 +1,37 @@
+package tileengine;
+
+/**
+ * Maps the wall clock onto simulation time for rendering. The simulation publishes whole
+ * ticks; between two of them a renderer running faster than the tick rate gets a
+ * fractional time, so clips and movement advance smoothly at any frame rate while their
+ * pace stays tied to the tick count.
+ */
+public final class AnimationClock {
+    private final long tickNanos;
+
+    public AnimationClock(long tickMs) {
+        this.tickNanos = tickMs * 1_000_000L;
+    }
+
+    /**
+     * Render time in ticks: the published tick plus how far the wall clock has moved past
+     * the moment it was published, capped at one tick so a stalled simulation doesn't let
+     * animation run ahead of it.
+     */
+    public double timeAt(long tick, long publishedNanos, long nowNanos) {
+        double into = (double) (nowNanos - publishedNanos) / tickNanos;
+        return tick + Math.max(0.0, Math.min(1.0, into));
+    }
+
+    /** Linear move from one tile coordinate to another that started at startTick. */
+    public static double glide(double from, double to, double time, long startTick, double durationTicks) {
+        double t = (time - startTick) / durationTicks;
+        if (t >= 1.0) {
+            return to;
+        }
+        if (t <= 0.0) {
+            return from;
+        }
+        return from + (to - from) * t;
+    }
+}
@@ -0,0 +1,177 @@
+package tileengine;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Hot reload for art: watches the assets directory and, when PNGs change, builds a new
+ * {@link TextureAtlas} on its own thread and hands it to a callback (the renderer's
+ * {@code setAtlas}, which swaps it in between frames).
+ *
+ * Tiles only hold image paths, so nothing else has to be recreated. An image that kept its
+ * size is patched into a copy of its page and every other page is shared; new, deleted or
+ * resized images repack the whole atlas. Saves usually arrive as several writes, so events
+ * are collected until the directory has been quiet for a moment.
+ */
+public final class AssetWatcher {
+    private static final long SETTLE_MS = 200;
+
+    private final Path assetsDir;
+    private final Path cacheDir;
+    private final Consumer<TextureAtlas> onReload;
+    private final WatchService service;
+    private final Map<WatchKey, Path> dirs = new HashMap<>();
+    private final Thread thread;
+
+    // Watcher thread only
+    private TextureAtlas atlas;
+    private boolean repack;
+
+    private AssetWatcher(Path assetsDir, Path cacheDir, TextureAtlas atlas, Consumer<TextureAtlas> onReload,
+                         WatchService service) {
+        this.assetsDir = assetsDir;
+        this.cacheDir = cacheDir;
+        this.atlas = atlas;
+        this.onReload = onReload;
+        this.service = service;
+        this.thread = new Thread(this::run, "asset-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Start watching. {@code atlas} is the one currently shown; every reload is built on
+     * top of the previous one. Returns null (and hot reload is simply off) if the
+     * directory can't be watched.
+     */
+    public static AssetWatcher start(Path assetsDir, Path cacheDir, TextureAtlas atlas,
+                                     Consumer<TextureAtlas> onReload) {
+        try {
+            AssetWatcher watcher = new AssetWatcher(assetsDir, cacheDir, atlas, onReload,
+                    FileSystems.getDefault().newWatchService());
+            watcher.registerAll(assetsDir);
+            watcher.thread.start();
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("[Atlas] Hot reload unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void close() {
+        try {
+            service.close(); // wakes the thread, which then exits
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    // WatchService isn't recursive, so every directory gets its own key
+    private void registerAll(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                dirs.put(dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(service.take(), changed);
+                for (WatchKey key = service.poll(SETTLE_MS, TimeUnit.MILLISECONDS); key != null;
+                     key = service.poll(SETTLE_MS, TimeUnit.MILLISECONDS)) {
+                    collect(key, changed);
+                }
+                if (!changed.isEmpty() || repack) {
+                    reload(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = dirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || dir == null) {
+                repack = true; // lost track of what changed
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context()).toAbsolutePath().normalize();
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerAll(path);
+                } catch (IOException e) {
+                    System.err.println("[Atlas] Unable to watch " + path + ": " + e.getMessage());
+                }
+                repack = true; // it may have arrived with images already in it
+            } else if (path.getFileName().toString().toLowerCase().endsWith(".png")) {
+                changed.add(path); // deletes too: many tools save by deleting and recreating
+            }
+        }
+        if (!key.reset()) {
+            dirs.remove(key);
+        }
+    }
+
+    private void reload(Set<Path> changed) {
+        TextureAtlas next = repack ? null : atlas;
+        int patched = 0;
+        for (Path file : changed) {
+            if (next == null) {
+                break;
+            }
+            if (!Files.exists(file)) {
+                next = null; // really deleted
+                break;
+            }
+            BufferedImage image = read(file);
+            if (image == null) {
+                continue; // still being written; its next event brings it back here
+            }
+            next = next.withImage(file, image);
+            patched += 1;
+        }
+        if (next == null) {
+            next = TextureAtlas.loadOrBuild(assetsDir, cacheDir);
+            System.err.println("[Atlas] Repacked after changes to " + changed.size() + " image(s)");
+        } else if (patched == 0) {
+            return;
+        } else {
+            System.err.println("[Atlas] Reloaded " + patched + " image(s)");
+        }
+        repack = false;
+        atlas = next;
+        onReload.accept(next);
+    }
+
+    private static BufferedImage read(Path file) {
+        try {
+            return ImageIO.read(file.toFile());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
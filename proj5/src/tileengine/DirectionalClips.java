@@ -0,0 +1,22 @@
+package tileengine;
+
+import core.Direction;
+
+/** One clip per facing direction, e.g. the four walk cycles of a sprite set. */
+public record DirectionalClips(AnimationClip up, AnimationClip down, AnimationClip left, AnimationClip right) {
+
+    public static DirectionalClips of(TETile[] up, TETile[] down, TETile[] left, TETile[] right,
+                                      double ticksPerFrame) {
+        return new DirectionalClips(new AnimationClip(up, ticksPerFrame), new AnimationClip(down, ticksPerFrame),
+                new AnimationClip(left, ticksPerFrame), new AnimationClip(right, ticksPerFrame));
+    }
+
+    public AnimationClip facing(Direction direction) {
+        return switch (direction) {
+            case UP -> up;
+            case DOWN -> down;
+            case LEFT -> left;
+            case RIGHT -> right;
+        };
+    }
+}
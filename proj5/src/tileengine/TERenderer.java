@@ -1,23 +1,28 @@
 package tileengine;
 
-import core.NPC.Corpse;
-import core.NPC.Npc;
+import core.RenderState;
+import core.WorldMetadata;
 import edu.princeton.cs.algs4.StdDraw;
 
 import java.awt.*;
-import java.lang.reflect.Field;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
 
-import core.NPC.NpcManager;
-import core.items.DroppedItem;
+import render.Scene;
+import render.SceneRenderer;
+import render.StdDrawSceneRenderer;
+import render.StdDrawWindow;
 
 import javax.swing.*;
-import java.util.List;
 
 /**
  * Utility class for rendering tiles. You do not need to modify this file. You're welcome
  * to, but be careful. We strongly recommend getting everything else working before
  * messing with this renderer, unless you're trying to do something fancy like
  * allowing scrolling of the screen or tracking the avatar or something similar.
+ *
+ * The draw* methods don't draw directly: they fill this frame's {@link Scene}, and
+ * {@link #present()} hands it to the active {@link SceneRenderer} backend.
  */
 public class TERenderer {
     static final int TILE_SIZE = 32;
@@ -52,16 +57,37 @@ public class TERenderer {
     //Smoothing factor for camera transitions (how much change per frame)
     private static final double CAMERA_SMOOTH = 0.20;
 
-    private static final double SMOOTH_SPEED = 0.10;
+    // Camera zoom: screen tiles per world tile. The HUD and screen layout stay in screen
+    // tiles (TILE_SIZE pixels); only the world is drawn bigger or smaller.
+    private static final double[] ZOOM_LEVELS = {0.5, 0.75, 1.0, 1.5, 2.0};
+    public static final int DEFAULT_ZOOM_LEVEL = 2;
+    private int zoomLevel = DEFAULT_ZOOM_LEVEL;
+    private double zoom = ZOOM_LEVELS[DEFAULT_ZOOM_LEVEL];
 
     // Keep NPC sprites aligned to a single tile so their visual footprint matches the collision
     // grid even as TILE_SIZE (zoom) changes.
 
+    // Output backend and the reusable scene every frame is built into
+    private SceneRenderer backend = new StdDrawSceneRenderer();
+    private final Scene scene = new Scene();
+    // Per-row NPC buckets for drawDepthSorted, reused frame to frame
+    private int[] rowStart = new int[0];
+    private int[] rowActors = new int[0];
+
+    // Lighting colors - precomputed so the lighting pass doesn't allocate a Color per tile
+    private static final Color UNLIT = new Color(0, 0, 0);
+    private static final Color[] DIM_LEVELS = new Color[51];
+    static {
+        for (int b = 0; b < DIM_LEVELS.length; b++) {
+            DIM_LEVELS[b] = new Color(b, b, b);
+        }
+    }
+
     /**
      * Immutable snapshot of the visible window for the current frame. Computing the
      * bounds once lets multiple render passes (tiles, lighting, overlays) reuse the
-     * same extents without repeating clamp math and keeps deferred draw queues that
-     * preserve depth ordering.
+     * same extents without repeating clamp math. Depth ordering comes from the layer
+     * each pass writes into the frame's scene.
      */
     public static final class RenderContext {
         final int startX;
@@ -69,14 +95,20 @@ public class TERenderer {
         final int startY;
         final int endY;
         final LightBounds litBounds;
-        final java.util.List<TileDraw> frontTiles = new java.util.ArrayList<>();
+        final Scene scene;
 
-        RenderContext(int startX, int endX, int startY, int endY, LightBounds litBounds) {
+        RenderContext(int startX, int endX, int startY, int endY, LightBounds litBounds, Scene scene) {
             this.startX = startX;
             this.endX = endX;
             this.startY = startY;
             this.endY = endY;
             this.litBounds = litBounds;
+            this.scene = scene;
+        }
+
+        /** The scene this frame is being built into. */
+        public Scene scene() {
+            return scene;
         }
 
         boolean contains(int x, int y) {
@@ -89,7 +121,6 @@ public class TERenderer {
         }
     }
 
-    private record TileDraw(int x, int y, TETile tile) { }
     private record LightBounds(int startX, int endX, int startY, int endY) { }
 
     // Camera fields - used to smoothly transition camera location when avatar
@@ -102,6 +133,9 @@ public class TERenderer {
     private int avatarY = -1;
 
 
+    // Precomputed tile classes for the current world; null falls back to tile identity checks
+    private WorldMetadata metadata;
+
     //Radius of visible light circle around player
     private double lightRadius = 6;   // tunable
     public static final TETile DARK =
@@ -117,6 +151,42 @@ public class TERenderer {
         this.lightRadius = r;
     }
 
+    public double lightRadius() {
+        return lightRadius;
+    }
+
+    public void setWorldMetadata(WorldMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /** Swap the output backend; call before initialize. */
+    public void setBackend(SceneRenderer backend) {
+        this.backend = backend;
+    }
+
+    public SceneRenderer backend() {
+        return backend;
+    }
+
+    /** Start a new frame: empties the shared scene and returns it for filling. */
+    public Scene beginFrame() {
+        scene.clear();
+        if (width > 0 && height > 0) {
+            scene.setViewport(xOffset, yOffset, xOffset + width, yOffset + height);
+        }
+        return scene;
+    }
+
+    /** Whether the backend must present again even though the scene is unchanged. */
+    public boolean needsPresent() {
+        return backend.needsPresent();
+    }
+
+    /** Draw the current scene through the backend and show it. */
+    public void present() {
+        backend.render(scene);
+    }
+
 
     // Move avatar instantly - replace avatar x and Y with new position
     // Recenter camera on top of avatar
@@ -124,11 +194,11 @@ public class TERenderer {
         this.avatarX = x;
         this.avatarY = y;
         if (viewWidth > 0 && viewHeight > 0) {
-            camTileX = avatarX - viewWidth / 2.0;
-            camTileY = avatarY - viewHeight / 2.0;
+            camTileX = avatarX - visibleWidth() / 2.0;
+            camTileY = avatarY - visibleHeight() / 2.0;
 
-            viewOriginX = clamp((int) Math.round(camTileX), 0, worldWidth - viewWidth);
-            viewOriginY = clamp((int) Math.round(camTileY), 0, worldHeight - viewHeight);
+            viewOriginX = clamp((int) Math.round(camTileX), 0, Math.max(0, worldWidth - visibleWidth()));
+            viewOriginY = clamp((int) Math.round(camTileY), 0, Math.max(0, worldHeight - visibleHeight()));
         }
     }
 
@@ -137,14 +207,86 @@ public class TERenderer {
         if (avatarX < 0 || avatarY < 0) return;
         if (worldWidth == 0 || worldHeight == 0) return;
 
-        double targetX = avatarX - viewWidth / 2.0;
-        double targetY = avatarY - viewHeight / 2.0;
+        double targetX = avatarX - visibleWidth() / 2.0;
+        double targetY = avatarY - visibleHeight() / 2.0;
 
         camTileX += (targetX - camTileX) * CAMERA_SMOOTH;
         camTileY += (targetY - camTileY) * CAMERA_SMOOTH;
 
-        viewOriginX = clamp((int)Math.round(camTileX), 0, worldWidth - viewWidth);
-        viewOriginY = clamp((int)Math.round(camTileY), 0, worldHeight - viewHeight);
+        viewOriginX = clamp((int)Math.round(camTileX), 0, Math.max(0, worldWidth - visibleWidth()));
+        viewOriginY = clamp((int)Math.round(camTileY), 0, Math.max(0, worldHeight - visibleHeight()));
+    }
+
+    // World tiles that fit in the view at the current zoom. A partial column on the right
+    // is just cut off by the window edge; a partial row on top would poke into the HUD.
+    private int visibleWidth() {
+        return (int) Math.ceil(viewWidth / zoom);
+    }
+
+    private int visibleHeight() {
+        return (int) Math.floor(viewHeight / zoom);
+    }
+
+    /** Select one of the zoom levels; out of range values are clamped. */
+    public void setZoomLevel(int level) {
+        zoomLevel = Math.max(0, Math.min(ZOOM_LEVELS.length - 1, level));
+        zoom = ZOOM_LEVELS[zoomLevel];
+    }
+
+    public int zoomLevel() {
+        return zoomLevel;
+    }
+
+    public static int zoomLevelCount() {
+        return ZOOM_LEVELS.length;
+    }
+
+    /** Screen tiles per world tile at the current zoom. */
+    public double tileScale() {
+        return zoom;
+    }
+
+    /** Screen size of the view area in screen tiles (excludes the HUD). */
+    public int viewWidth() {
+        return viewWidth;
+    }
+
+    public int viewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * Follow a resizable backend's surface: if its pixel size now fits a different number
+     * of screen tiles, grow or shrink the view (the HUD keeps its height) and tell the
+     * backend. Returns true when the view size changed.
+     */
+    public boolean fitToSurface() {
+        Dimension surface = backend.surfaceSize();
+        if (surface == null || surface.width <= 0 || surface.height <= 0) {
+            return false;
+        }
+        int w = Math.max(1, (int) Math.ceil((double) surface.width / TILE_SIZE));
+        int h = Math.max(hudHeight + 1, (int) Math.ceil((double) surface.height / TILE_SIZE));
+        if (w == width && h == height) {
+            return false;
+        }
+        width = w;
+        height = h;
+        viewWidth = w;
+        viewHeight = h - hudHeight;
+        backend.resize(width, height);
+        return true;
+    }
+
+    /** Mouse position in screen tiles, from the backend if it tracks one, else StdDraw. */
+    public double mouseX() {
+        Point2D.Double mouse = backend.mouseTile();
+        return mouse != null ? mouse.x : StdDraw.mouseX();
+    }
+
+    public double mouseY() {
+        Point2D.Double mouse = backend.mouseTile();
+        return mouse != null ? mouse.y : StdDraw.mouseY();
     }
     public int getViewOriginX() {
         return viewOriginX;
@@ -170,13 +312,13 @@ public class TERenderer {
      */
     public RenderContext buildContext(TETile[][] world) {
         int startX = Math.max(0, viewOriginX);
-        int endX = Math.min(world.length, viewOriginX + viewWidth);
+        int endX = Math.min(world.length, viewOriginX + visibleWidth());
 
         int startY = Math.max(0, viewOriginY);
-        int endY = Math.min(world[0].length, viewOriginY + viewHeight);
+        int endY = Math.min(world[0].length, viewOriginY + visibleHeight());
 
         LightBounds litBounds = litBounds(startX, endX, startY, endY);
-        return new RenderContext(startX, endX, startY, endY, litBounds);
+        return new RenderContext(startX, endX, startY, endY, litBounds, beginFrame());
     }
 
 
@@ -187,20 +329,23 @@ public class TERenderer {
         return value;
     }
 
-    //Is some tiles coords inside of the region between origin and width/height
-    private boolean inView(int x, int y) {
-        return x >= viewOriginX && x < viewOriginX + viewWidth
-                && y >= viewOriginY && y < viewOriginY + viewHeight;
-    }
-
 
     // Maps world tile coords to on screen tile coords
     public double toScreenX(double worldX) {
-        return (worldX - viewOriginX) + xOffset;
+        return (worldX - viewOriginX) * zoom + xOffset;
     }
 
     public double toScreenY(double worldY) {
-        return (worldY - viewOriginY) + yOffset;
+        return (worldY - viewOriginY) * zoom + yOffset;
+    }
+
+    // And back: the world tile under a screen tile coordinate
+    public int toWorldX(double screenX) {
+        return (int) Math.floor((screenX - xOffset) / zoom) + viewOriginX;
+    }
+
+    public int toWorldY(double screenY) {
+        return (int) Math.floor((screenY - yOffset) / zoom) + viewOriginY;
     }
 
 
@@ -209,9 +354,7 @@ public class TERenderer {
     // custom frame that sits centered relative to user window
     public static void centerStdDraw() {
         try {
-            Field f = StdDraw.class.getDeclaredField("frame");
-            f.setAccessible(true);
-            JFrame frame = (JFrame) f.get(null);
+            JFrame frame = StdDrawWindow.frame();
 
             Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
             int x = (screen.width - frame.getWidth()) / 2;
@@ -244,16 +387,7 @@ public class TERenderer {
             viewHeight = h - hudHeight;
         }
 
-
-        StdDraw.setCanvasSize(width * TILE_SIZE, height * TILE_SIZE);
-        centerStdDraw();
-        resetFont();
-        StdDraw.setXscale(xOffset, xOffset + width);
-        StdDraw.setYscale(yOffset, yOffset + height);
-        StdDraw.clear(new Color(0, 0, 0));
-
-        StdDraw.enableDoubleBuffering();
-        StdDraw.show();
+        backend.initialize(width, height, TILE_SIZE, xOffset, yOffset);
     }
 
     /**
@@ -297,9 +431,8 @@ public class TERenderer {
      */
     // No longer used - split rendering into 2 phases to create depth
     public void renderFrame(TETile[][] world) {
-        StdDraw.clear(new Color(0, 0, 0));
         drawTiles(world);
-        StdDraw.show();
+        present();
     }
 
     // Bresenhams line algo for LOS lighting
@@ -320,7 +453,7 @@ public class TERenderer {
 
         while (true) {
             if (x1 == x2 && y1 == y2) return false; //base case
-            if (world[x1][y1] == Tileset.WALL_TOP) return true; // hit  wall - occlude beyond
+            if (isOpaque(world, x1, y1)) return true; // hit  wall - occlude beyond
             int e2 = 2 * err;
 
             // check if veering right/left more than up/down
@@ -340,14 +473,14 @@ public class TERenderer {
     public void applyFullLightingPass(TETile[][] world, RenderContext context) {
         for (int x = context.startX; x < context.endX; x++) {
             for (int y = context.startY; y < context.endY; y++) {
-                applyLightingMask(world, x, y);
+                applyLightingMask(world, x, y, context.scene);
             }
         }
     }
 
 
     // Apply lighting mask to restrict player visibility to circular ring around player avatar
-    private void applyLightingMask(TETile[][] world, int x, int y) {
+    private void applyLightingMask(TETile[][] world, int x, int y, Scene scene) {
 
         double dx = x - avatarX;
         double dy = y - avatarY;
@@ -356,14 +489,13 @@ public class TERenderer {
         double radius = lightRadius; // define based on distance wanting to see
         // fully dark
         if (dist >= radius + 1.0) {
-            StdDraw.setPenColor(0, 0, 0);
-            StdDraw.filledSquare(toScreenX(x) + 0.5, toScreenY(y) + 0.5, 0.5);
+            scene.addOverlay(Scene.Layer.OVERLAY, UNLIT, toScreenX(x), toScreenY(y), zoom);
             return;
         }
 
         if (isOccluded(x, y, world)) {
-            StdDraw.setPenColor(0, 0, 0); // Occlude beyond wall
-            StdDraw.filledSquare(toScreenX(x) + 0.5, toScreenY(y) + 0.5, 0.5);
+            // Occlude beyond wall
+            scene.addOverlay(Scene.Layer.OVERLAY, UNLIT, toScreenX(x), toScreenY(y), zoom);
             return;
         }
 
@@ -378,82 +510,127 @@ public class TERenderer {
 
         int brightness = (int) (50 * (1.0 - fade)); // 0 (black) to 50 (dim)
 
-        StdDraw.setPenColor(brightness, brightness, brightness);
-        StdDraw.filledSquare(toScreenX(x) + 0.5, toScreenY(y) + 0.5, 0.5);
+        scene.addOverlay(Scene.Layer.OVERLAY, DIM_LEVELS[brightness], toScreenX(x), toScreenY(y), zoom);
     }
 
 
 
     /**
-     * Draws all world tiles without clearing the canvas or showing the tiles.
+     * Fills a fresh frame scene with all visible world tiles without showing them.
      * @param world the 2D TETile[][] array to render
      */
-    // Not used
     public void drawTiles(TETile[][] world) {
         RenderContext context = buildContext(world);
         drawBaseTiles(world, context);
-        drawFrontTiles(context);
+        drawDepthSorted(world, null, context);
     }
 
-    public void drawNpcsBack(TETile[][] world, NpcManager npcManager, RenderContext context) {
-        if (npcManager == null) {
-            return;
-        }
-        for (Npc npc : npcManager.npcs()) {
-            if (!context.withinLightWindow(npc.x(), npc.y())) {
-                continue;
-            }
+    /**
+     * Walls and actors in one painter's-order sweep, farthest row (highest y) first. Within
+     * a row, top walls go down first, then the avatar and NPCs standing in it, then the
+     * remaining wall tiles; rows nearer the camera then cover whatever hangs down into
+     * them. Each wall is drawn once, and NPCs are bucketed by row into reused arrays so
+     * the pass doesn't allocate. {@code state} may be null to draw just the walls.
+     */
+    public void drawDepthSorted(TETile[][] world, RenderState state, RenderContext context) {
+        Scene scene = context.scene;
+        LightBounds bounds = context.litBounds;
+        int rows = Math.max(0, bounds.endY - bounds.startY);
+        int actors = bucketActorsByRow(state, context, bounds.startY, rows);
 
-            if (npc.y() > avatarY) {
-                npc.updateSmooth(SMOOTH_SPEED);
-                npc.currentTile().drawScaled(toScreenX(npc.drawX()), toScreenY(npc.drawY()), 2.0);
-                redrawCoverWalls(world, npc.x(), npc.y());
+        for (int y = bounds.endY - 1; y >= bounds.startY; y--) {
+            for (int x = bounds.startX; x < bounds.endX; x++) {
+                if (!isBaseLayer(world, x, y) && isTopWall(world, x, y)) {
+                    scene.addSprite(Scene.Layer.DEPTH_SORTED, world[x][y], toScreenX(x), toScreenY(y), zoom);
+                }
+            }
+            if (state != null && state.avatarSprite() != null && state.avatarY() == y) {
+                addActorSprite(scene, state.avatarSprite(), state.avatarDrawX(), state.avatarDrawY());
+            }
+            if (actors > 0) {
+                int row = y - bounds.startY;
+                for (int k = rowStart[row], end = rowStart[row + 1]; k < end; k++) {
+                    RenderState.Actor npc = state.npc(rowActors[k]);
+                    addActorSprite(scene, npc.tile(), npc.drawX(), npc.drawY());
+                }
+            }
+            for (int x = bounds.startX; x < bounds.endX; x++) {
+                if (!isBaseLayer(world, x, y) && !isTopWall(world, x, y)) {
+                    scene.addSprite(Scene.Layer.DEPTH_SORTED, world[x][y], toScreenX(x), toScreenY(y), zoom);
+                }
             }
         }
     }
-    public void drawNpcsFront(TETile[][] world, NpcManager npcManager, RenderContext context) {
-        if (npcManager == null) {
-            return;
+
+    // Counting sort of visible NPC indices by tile row into rowActors; rowStart[r]..rowStart[r + 1]
+    // is row startY + r. Both arrays persist across frames and only grow.
+    private int bucketActorsByRow(RenderState state, RenderContext context, int startY, int rows) {
+        if (rowStart.length < rows + 1) {
+            rowStart = new int[rows + 1];
         }
-        for (Npc npc : npcManager.npcs()) {
-            if (!context.withinLightWindow(npc.x(), npc.y())) {
-                continue;
+        Arrays.fill(rowStart, 0, rows + 1, 0);
+        if (state == null || state.npcCount() == 0 || rows == 0) {
+            return 0;
+        }
+        int n = state.npcCount();
+        if (rowActors.length < n) {
+            rowActors = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            RenderState.Actor npc = state.npc(i);
+            if (context.withinLightWindow(npc.x(), npc.y())) {
+                rowStart[npc.y() - startY] += 1;
             }
-            if (npc.y() <= avatarY) {
-                npc.updateSmooth(SMOOTH_SPEED);
-                npc.currentTile().drawScaled(toScreenX(npc.drawX()), toScreenY(npc.drawY()), 2.0);
+        }
+        for (int r = 1; r < rows; r++) {
+            rowStart[r] += rowStart[r - 1]; // now the end of each row's bucket
+        }
+        int visible = rowStart[rows - 1];
+        rowStart[rows] = visible;
+        // walk backwards, decrementing ends into starts, so each bucket keeps NPC list order
+        for (int i = n - 1; i >= 0; i--) {
+            RenderState.Actor npc = state.npc(i);
+            if (context.withinLightWindow(npc.x(), npc.y())) {
+                rowActors[--rowStart[npc.y() - startY]] = i;
             }
         }
+        return visible;
     }
 
-    public void drawDroppedItems(List<DroppedItem> drops, RenderContext context) {
-        if (drops == null) {
-            return;
-        }
-        for (DroppedItem drop : drops) {
+    // Actor art is two tiles tall/wide, centered on the actor's tile
+    private void addActorSprite(Scene scene, TETile tile, double drawX, double drawY) {
+        scene.addSpriteCentered(Scene.Layer.DEPTH_SORTED, tile, toScreenX(drawX) + 0.5 * zoom,
+                toScreenY(drawY) + 0.5 * zoom, 2.0 * zoom, 2.0 * zoom);
+    }
+
+    public void drawDroppedItems(RenderState state, RenderContext context) {
+        for (int i = 0, n = state.dropCount(); i < n; i++) {
+            RenderState.Prop drop = state.drop(i);
             if (!context.withinLightWindow(drop.x(), drop.y())) {
                 continue;
             }
-            Tileset.LOOT_BAG.drawSized(toScreenX(drop.x()), toScreenY(drop.y()), 1.0);
+            context.scene.addSprite(Scene.Layer.ITEMS, drop.tile(),
+                    toScreenX(drop.x()), toScreenY(drop.y()), zoom);
         }
     }
 
-    public void drawCorpses(List<Corpse> corpses, RenderContext context) {
-        if (corpses == null) {
-            return;
-        }
-        for (Corpse corpse : corpses) {
+    public void drawCorpses(RenderState state, RenderContext context) {
+        for (int i = 0, n = state.corpseCount(); i < n; i++) {
+            RenderState.Prop corpse = state.corpse(i);
             if (!context.withinLightWindow(corpse.x(), corpse.y())) {
                 continue;
             }
-            corpse.tile().drawSized(toScreenX(corpse.x()), toScreenY(corpse.y()), 1.0);
+            context.scene.addSprite(Scene.Layer.DECOR, corpse.tile(),
+                    toScreenX(corpse.x()), toScreenY(corpse.y()), zoom);
         }
     }
 
 
 
-    // If behind avatar and standable, render (
+    // Floors and anything else standable go in the background layer; walls are left to
+    // drawDepthSorted so they layer correctly with actors
     public void drawBaseTiles(TETile[][] world, RenderContext context) {
+        Scene scene = context.scene;
         LightBounds bounds = context.litBounds;
         for (int x = bounds.startX; x < bounds.endX; x++) {
             for (int y = bounds.startY; y < bounds.endY; y++) {
@@ -462,27 +639,13 @@ public class TERenderer {
                 if (tile == null) {
                     throw new IllegalArgumentException("Tile at " + x + "," + y + " is null.");
                 }
-                // draw non-wall tiles now
-                // draw walls behind the avatar now
-                if (isFloor(tile)){
-                    tile.drawSized(toScreenX(x), toScreenY(y), 1.0);
-                } else if (isTopWall(tile) && y > avatarY) {
-                    tile.drawSized(toScreenX(x), toScreenY(y), 1.0);
-                }
-                else {
-                    context.frontTiles.add(new TileDraw(x, y, tile));
+                if (isBaseLayer(world, x, y)) {
+                    scene.addSprite(Scene.Layer.BACKGROUND, tile, toScreenX(x), toScreenY(y), zoom);
                 }
             }
         }
     }
 
-    // If in front of avatar and not a floor/standable tile, render (makes sure floors dont render above player)
-    public void drawFrontTiles(RenderContext context) {
-        for (TileDraw draw : context.frontTiles) {
-            draw.tile().drawSized(toScreenX(draw.x()), toScreenY(draw.y()), 1.0);
-        }
-    }
-
 
     private LightBounds litBounds(int viewStartX, int viewEndX, int viewStartY, int viewEndY) {
         // pad the light radius by one tile to keep gradient and occlusion ring intact
@@ -497,35 +660,17 @@ public class TERenderer {
         return new LightBounds(startX, endX, startY, endY);
     }
 
-    // Minimal redraw to occlude tall NPC sprites when they overlap walls above them.
-    private void redrawCoverWalls(TETile[][] world, int npcX, int npcY) {
-        int numXTiles = world.length;
-        int numYTiles = world[0].length;
-
-        for (int dx = -1; dx <= 1; dx++) {
-            int x = npcX + dx;
-
-            for (int dy = -1; dy <= 1; dy++) {
-                int y = npcY + dy;
-
-                if (x < 0 || x >= numXTiles || y < 0 || y >= numYTiles) {
-                    continue;
-                }
-
-                TETile tile = world[x][y];
-                if (tile == null) {
-                    throw new IllegalArgumentException("Tile at " + x + "," + y + " is null.");
-                }
+    // Metadata lookups when available (one array read), identity checks otherwise (demos, renderFrame)
+    private boolean isBaseLayer(TETile[][] world, int x, int y) {
+        return metadata != null ? metadata.isBaseLayer(x, y) : isFloor(world[x][y]);
+    }
 
-                if (!inView(x,y)) {
-                    continue;
-                }
+    private boolean isTopWall(TETile[][] world, int x, int y) {
+        return metadata != null ? metadata.isTopWall(x, y) : isTopWall(world[x][y]);
+    }
 
-                if (isTopWall(tile) && y > avatarY) {
-                    tile.drawSized(toScreenX(x), toScreenY(y), 1.0);
-                }
-            }
-        }
+    private boolean isOpaque(TETile[][] world, int x, int y) {
+        return metadata != null ? metadata.isOpaque(x, y) : world[x][y] == Tileset.WALL_TOP;
     }
     private boolean isFloor(TETile t) {
         return t == Tileset.FLOOR || t == Tileset.ELEVATOR;
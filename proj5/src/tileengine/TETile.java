@@ -111,13 +111,7 @@ public class TETile {
     }
 
     public void drawScaled(double x, double y, double scale) {
-        StdDraw.picture(
-                x + 0.5,
-                y + 0.5,
-                filepath,        // however your TETile stores file path
-                scale,
-                scale
-        );
+        drawCentered(x + 0.5, y + 0.5, scale, scale);
     }
 
 
@@ -130,9 +124,17 @@ public class TETile {
      * @param tileSize size of one tile in world units
      */
     public void drawSized(double x, double y, double tileSize) {
+        drawCentered(x + 0.5 * tileSize, y + 0.5 * tileSize, tileSize, tileSize);
+    }
+
+    /**
+     * Draws the tile stretched to width x height world units, centered on (centerX, centerY).
+     * Falls back to the character and colors when there is no usable image.
+     */
+    public void drawCentered(double centerX, double centerY, double width, double height) {
         if (filepath != null) {
             try {
-                StdDraw.picture(x + 0.5 * tileSize, y + 0.5 * tileSize, filepath, tileSize, tileSize);
+                StdDraw.picture(centerX, centerY, filepath, width, height);
                 return;
             } catch (IllegalArgumentException e) {
                 // fall back to primitive drawing
@@ -140,9 +142,22 @@ public class TETile {
         }
 
         StdDraw.setPenColor(backgroundColor);
-        StdDraw.filledSquare(x + 0.5 * tileSize, y + 0.5 * tileSize, 0.5 * tileSize);
+        StdDraw.filledRectangle(centerX, centerY, 0.5 * width, 0.5 * height);
         StdDraw.setPenColor(textColor);
-        StdDraw.text(x + 0.5 * tileSize, y + 0.5 * tileSize, Character.toString(character()));
+        StdDraw.text(centerX, centerY, Character.toString(character()));
+    }
+
+    /** Path of the tile image, or null for text-only tiles. */
+    public String filepath() {
+        return filepath;
+    }
+
+    public Color textColor() {
+        return textColor;
+    }
+
+    public Color backgroundColor() {
+        return backgroundColor;
     }
 
     /** Character representation of the tile. Used for drawing in text mode.
@@ -0,0 +1,314 @@
+package tileengine;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Every PNG under the assets directory packed into a few large page images, plus an
+ * index from image path to its rectangle on a page. Renderers draw sub-rectangles of
+ * one page instead of keeping hundreds of separate images around.
+ *
+ * Packing decodes every asset, so the result is cached on disk (page PNGs and a small
+ * index) and reused as long as no asset file changed. Run this class's main to build
+ * the cache ahead of time.
+ */
+public final class TextureAtlas {
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+    private static final int PADDING = 1; // keeps filtered edges from bleeding into neighbors
+    private static final int INDEX_MAGIC = 0x41544C53; // "ATLS"
+    private static final int INDEX_VERSION = 1;
+    private static final String INDEX_FILE = "atlas.idx";
+
+    /** Where an image lives: page number and pixel rectangle on that page. */
+    public record Region(int page, int x, int y, int width, int height) { }
+
+    private static final Region MISSING = new Region(-1, 0, 0, 0, 0);
+
+    private final List<BufferedImage> pages;
+    private final Map<String, Region> regions;                          // normalized absolute path -> rect
+    private final Map<TETile, Region> byTile = new IdentityHashMap<>(); // memoized per tile object
+
+    private TextureAtlas(List<BufferedImage> pages, Map<String, Region> regions) {
+        this.pages = pages;
+        this.regions = regions;
+    }
+
+    public static TextureAtlas empty() {
+        return new TextureAtlas(List.of(), Map.of());
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    public BufferedImage page(int index) {
+        return pages.get(index);
+    }
+
+    public int regionCount() {
+        return regions.size();
+    }
+
+    /** Rectangle for an image path (relative or absolute), or null if it isn't packed. */
+    public Region region(String path) {
+        if (path == null) {
+            return null;
+        }
+        return regions.get(key(path));
+    }
+
+    /** Rectangle for a tile's image, or null. Cached per tile so lookups are one hash probe. */
+    public Region region(TETile tile) {
+        Region region = byTile.get(tile);
+        if (region == null) {
+            region = tile.filepath() == null ? null : region(tile.filepath());
+            byTile.put(tile, region == null ? MISSING : region);
+        }
+        return region == MISSING ? null : region;
+    }
+
+    /**
+     * A copy of this atlas with one image's pixels replaced, sharing every page except the
+     * one the image sits on. Returns null if the image isn't packed here or changed size;
+     * the atlas has to be repacked then.
+     */
+    public TextureAtlas withImage(Path file, BufferedImage image) {
+        Region region = regions.get(key(file.toString()));
+        if (region == null || region.width() != image.getWidth() || region.height() != image.getHeight()) {
+            return null;
+        }
+        BufferedImage old = pages.get(region.page());
+        BufferedImage page = new BufferedImage(old.getWidth(), old.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = page.createGraphics();
+        try {
+            g.drawImage(old, 0, 0, null);
+            g.setComposite(AlphaComposite.Src); // replace, don't blend over the old pixels
+            g.drawImage(image, region.x(), region.y(), null);
+        } finally {
+            g.dispose();
+        }
+        List<BufferedImage> copy = new ArrayList<>(pages);
+        copy.set(region.page(), page);
+        return new TextureAtlas(copy, regions);
+    }
+
+    private static String key(String path) {
+        return Path.of(path).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Load the cached atlas for assetsDir if it's still current, otherwise pack and cache it.
+     * Never throws for a missing assets directory; you just get an empty atlas.
+     */
+    public static TextureAtlas loadOrBuild(Path assetsDir, Path cacheDir) {
+        if (!Files.isDirectory(assetsDir)) {
+            return empty();
+        }
+        try {
+            List<Path> files = listImages(assetsDir);
+            long fingerprint = fingerprint(files);
+            TextureAtlas cached = readCache(cacheDir, fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+            TextureAtlas atlas = build(files, DEFAULT_PAGE_SIZE);
+            try {
+                atlas.writeCache(cacheDir, fingerprint);
+            } catch (IOException e) {
+                System.err.println("[Atlas] Unable to write cache: " + e.getMessage());
+            }
+            return atlas;
+        } catch (IOException e) {
+            System.err.println("[Atlas] Unable to build atlas: " + e.getMessage());
+            return empty();
+        }
+    }
+
+    private static List<Path> listImages(Path assetsDir) throws IOException {
+        try (Stream<Path> walk = Files.walk(assetsDir)) {
+            List<Path> files = new ArrayList<>(walk
+                    .filter(p -> Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(".png"))
+                    .map(p -> p.toAbsolutePath().normalize())
+                    .toList());
+            Collections.sort(files);
+            return files;
+        }
+    }
+
+    // Cheap change detection: path, size and mtime of every image, no decoding
+    private static long fingerprint(List<Path> files) throws IOException {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (Path file : files) {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            hash = hash * 31 + file.toString().hashCode();
+            hash = hash * 31 + attrs.size();
+            hash = hash * 31 + attrs.lastModifiedTime().toMillis();
+        }
+        return hash;
+    }
+
+    /**
+     * Shelf packing: images sorted tallest first fill rows left to right; a new row starts
+     * when one is full and a new page when a page is full. Images larger than a page, or
+     * that fail to decode, are left out (callers fall back to loading them directly).
+     */
+    public static TextureAtlas build(List<Path> files, int pageSize) {
+        record Entry(String key, BufferedImage image) { }
+        List<Entry> entries = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image != null && image.getWidth() + PADDING <= pageSize
+                        && image.getHeight() + PADDING <= pageSize) {
+                    entries.add(new Entry(file.toString(), image));
+                }
+            } catch (IOException e) {
+                System.err.println("[Atlas] Skipping unreadable image: " + file);
+            }
+        }
+        entries.sort(Comparator.comparingInt((Entry e) -> e.image().getHeight()).reversed()
+                .thenComparing(Entry::key));
+
+        List<BufferedImage> pages = new ArrayList<>();
+        Map<String, Region> regions = new HashMap<>();
+        Graphics2D g = null;
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (Entry entry : entries) {
+            int w = entry.image().getWidth();
+            int h = entry.image().getHeight();
+            if (g != null && shelfX + w > pageSize) {
+                shelfY += shelfHeight + PADDING;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (g == null || shelfY + h > pageSize) {
+                if (g != null) {
+                    g.dispose();
+                    trimLastPage(pages, shelfY + shelfHeight);
+                }
+                BufferedImage page = new BufferedImage(pageSize, pageSize, BufferedImage.TYPE_INT_ARGB);
+                pages.add(page);
+                g = page.createGraphics();
+                shelfX = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+            }
+            g.drawImage(entry.image(), shelfX, shelfY, null);
+            regions.put(entry.key(), new Region(pages.size() - 1, shelfX, shelfY, w, h));
+            shelfX += w + PADDING;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        if (g != null) {
+            g.dispose();
+            trimLastPage(pages, shelfY + shelfHeight);
+        }
+        return new TextureAtlas(pages, regions);
+    }
+
+    // Pages are allocated full height; drop the unused rows at the bottom
+    private static void trimLastPage(List<BufferedImage> pages, int usedHeight) {
+        int last = pages.size() - 1;
+        BufferedImage page = pages.get(last);
+        if (usedHeight <= 0 || usedHeight >= page.getHeight()) {
+            return;
+        }
+        BufferedImage trimmed = new BufferedImage(page.getWidth(), usedHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = trimmed.createGraphics();
+        try {
+            g.drawImage(page, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        pages.set(last, trimmed);
+    }
+
+    private void writeCache(Path cacheDir, long fingerprint) throws IOException {
+        Files.createDirectories(cacheDir);
+        for (int i = 0; i < pages.size(); i++) {
+            ImageIO.write(pages.get(i), "png", cacheDir.resolve("page_" + i + ".png").toFile());
+        }
+        try (OutputStream file = Files.newOutputStream(cacheDir.resolve(INDEX_FILE));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeShort(INDEX_VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(pages.size());
+            out.writeInt(regions.size());
+            for (Map.Entry<String, Region> e : regions.entrySet()) {
+                Region r = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeShort(r.page());
+                out.writeShort(r.x());
+                out.writeShort(r.y());
+                out.writeShort(r.width());
+                out.writeShort(r.height());
+            }
+        }
+    }
+
+    // null when there is no cache or it was built from different assets
+    private static TextureAtlas readCache(Path cacheDir, long fingerprint) {
+        Path index = cacheDir.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(index)) {
+            return null;
+        }
+        try (InputStream file = Files.newInputStream(index);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != INDEX_MAGIC || in.readShort() != INDEX_VERSION || in.readLong() != fingerprint) {
+                return null;
+            }
+            int pageCount = in.readInt();
+            int regionCount = in.readInt();
+            Map<String, Region> regions = new HashMap<>(regionCount * 2);
+            for (int i = 0; i < regionCount; i++) {
+                String key = in.readUTF();
+                regions.put(key, new Region(in.readShort(), in.readShort(), in.readShort(),
+                        in.readShort(), in.readShort()));
+            }
+            List<BufferedImage> pages = new ArrayList<>(pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                BufferedImage page = ImageIO.read(cacheDir.resolve("page_" + i + ".png").toFile());
+                if (page == null) {
+                    return null;
+                }
+                pages.add(page);
+            }
+            return new TextureAtlas(pages, regions);
+        } catch (IOException e) {
+            System.err.println("[Atlas] Ignoring unreadable cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Offline build step: java tileengine.TextureAtlas [assetsDir] [cacheDir] */
+    public static void main(String[] args) {
+        Path assets = Path.of(args.length > 0 ? args[0] : "assets");
+        Path cache = Path.of(args.length > 1 ? args[1] : ".atlas");
+        long start = System.nanoTime();
+        TextureAtlas atlas = loadOrBuild(assets, cache);
+        System.out.println("[Atlas] " + atlas.regionCount() + " images on " + atlas.pageCount()
+                + " page(s) in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+}
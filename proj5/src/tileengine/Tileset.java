@@ -4,6 +4,8 @@ import java.awt.Color;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Contains constant tile objects, to avoid having to remake the same tiles in different parts of
@@ -69,11 +71,18 @@ public class Tileset {
         return frames;
     }
 
+    // One set per variant, shared by every NPC that uses it
+    private static final Map<Integer, NpcSpriteSet> NPC_SPRITE_SETS = new ConcurrentHashMap<>();
+
     /**
-     * Load walking animation frames for a specific NPC variant.
+     * Walking and attack frames for a specific NPC variant, built once per variant.
      * The assets are expected under assets/avatars/NPC/{variant}/.
      */
     public static NpcSpriteSet loadNpcSpriteSet(int variant) {
+        return NPC_SPRITE_SETS.computeIfAbsent(variant, Tileset::buildNpcSpriteSet);
+    }
+
+    private static NpcSpriteSet buildNpcSpriteSet(int variant) {
         TETile[] walkRight = loadNpcDirectionFrames(variant, "walk", "right", 16);
         TETile[] walkLeft = loadNpcDirectionFrames(variant, "walk", "left", 15);
         TETile[] walkUp = loadNpcDirectionFrames(variant, "walk", "up", 13);
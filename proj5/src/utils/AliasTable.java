@@ -0,0 +1,76 @@
+package utils;
+
+import java.util.Random;
+
+/**
+ * Walker's alias method (Vose's construction) for sampling a fixed discrete distribution
+ * many times. Building is O(n); every draw after that is O(1) - one uniform slot and one
+ * biased coin - where {@link RandomUtils#discrete(Random, double[])} walks the whole array
+ * on each call.
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /** @param weights nonnegative relative weights, at least one positive; need not sum to 1 */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (!(weights[i] >= 0.0)) {
+                throw new IllegalArgumentException("weight " + i + " must be nonnegative: " + weights[i]);
+            }
+            sum += weights[i];
+        }
+        if (!(sum > 0.0)) {
+            throw new IllegalArgumentException("at least one weight must be positive");
+        }
+        probability = new double[n];
+        alias = new int[n];
+
+        // scaled so the average slot holds exactly 1.0; split into under- and overfull
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        // top up each underfull slot from an overfull one
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - 1.0;
+            if (scaled[l] < 1.0) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // what's left is full up to roundoff
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    /** Index i with probability weights[i] / sum(weights). Always two draws from random. */
+    public int sample(Random random) {
+        int slot = RandomUtils.uniform(random, probability.length);
+        return RandomUtils.uniform(random) < probability[slot] ? slot : alias[slot];
+    }
+}
@@ -0,0 +1,154 @@
+package utils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Loads assets (images, atlases, sprite sheets, sounds - anything with a {@link Loader}) on a
+ * small pool of background threads and hands out shared {@link Handle}s.
+ *
+ * Requesting an id that's already loaded or loading returns the same handle. A load that
+ * fails is forgotten, so asking for that id again retries it.
+ *
+ * {@link #progress()} reports completed / requested loads for loading screens, and
+ * {@link #await} blocks only on the handles a caller actually needs.
+ */
+public final class AssetManager {
+    /** Reads one asset. Runs on a loader thread. */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(String id) throws IOException;
+    }
+
+    /** A shared asset that may still be loading. */
+    public static final class Handle<T> {
+        private final String id;
+        private final CompletableFuture<T> future;
+
+        private Handle(String id, CompletableFuture<T> future) {
+            this.id = id;
+            this.future = future;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /** The asset if it finished loading, otherwise null (also null if the load failed). */
+        public T getNow() {
+            return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        }
+
+        /** Wait for the asset; null if it failed to load. */
+        public T join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+
+        /** Run on the loader thread (or right away if already loaded); skipped if the load fails. */
+        public void whenReady(Consumer<T> action) {
+            future.thenAccept(asset -> {
+                if (asset != null) {
+                    action.accept(asset);
+                }
+            });
+        }
+    }
+
+    private final ExecutorService pool;
+    private final Map<String, Handle<?>> handles = new HashMap<>();
+    private final AtomicInteger requested = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    public AssetManager() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public AssetManager(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "asset-loader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1); // never compete with the game thread
+            return t;
+        });
+    }
+
+    /**
+     * Start loading {@code id}, or share the load already under way. Ids name one asset
+     * each; asking for the same id with a different type is a programming error.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Handle<T> load(String id, Loader<T> loader) {
+        Handle<?> existing = handles.get(id);
+        if (existing != null) {
+            return (Handle<T>) existing;
+        }
+        requested.incrementAndGet();
+        // the handle completes only after the bookkeeping, so whoever joins a failed load
+        // can already retry it
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Handle<T> handle = new Handle<>(id, result);
+        handles.put(id, handle);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.load(id);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, pool).whenComplete((asset, failure) -> {
+            completed.incrementAndGet();
+            if (failure == null) {
+                result.complete(asset);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            System.err.println("[Assets] Unable to load " + id + ": " + cause.getMessage());
+            forget(id);
+            result.completeExceptionally(cause);
+        });
+        return handle;
+    }
+
+    // Drop a failed load so the next request for its id starts over. The handle was
+    // registered before its load started, so the entry for id is the one that failed.
+    private synchronized void forget(String id) {
+        handles.remove(id);
+    }
+
+    /** Block until all of these have loaded (or failed). */
+    public void await(Handle<?>... needed) {
+        for (Handle<?> handle : needed) {
+            handle.join();
+        }
+    }
+
+    /** Finished share of everything requested so far, 0..1 (1 when nothing was requested). */
+    public double progress() {
+        int total = requested.get();
+        return total == 0 ? 1.0 : (double) completed.get() / total;
+    }
+
+    public int pending() {
+        return requested.get() - completed.get();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
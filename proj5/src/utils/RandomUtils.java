@@ -328,6 +328,18 @@ public class RandomUtils {
         return -1;
     }
 
+    /**
+     * Returns a random integer from a discrete distribution prepared as an
+     * {@link AliasTable}: constant time per draw, for distributions sampled repeatedly.
+     *
+     * @param table the distribution
+     * @return a random integer {@code i} with probability proportional to the
+     * table's {@code weights[i]}
+     */
+    public static int discrete(Random random, AliasTable table) {
+        return table.sample(random);
+    }
+
     /**
      * Returns a random real number from an exponential distribution
      * with rate &lambda;.
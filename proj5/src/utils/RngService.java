@@ -0,0 +1,65 @@
+package utils;
+
+/**
+ * Hands out independent random streams derived from a single world seed.
+ *
+ * Every stream is a pure function of (seed, stream, keys), so it doesn't matter in
+ * which order - or on which thread - streams are requested. World generation phases,
+ * chunks and individual NPCs each get their own generator, which means adding an extra
+ * draw in one phase no longer shifts every phase after it, and the same seed always
+ * reproduces the same world and the same NPC decisions.
+ */
+public class RngService {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** Named streams. Salts are fixed so reordering the enum never changes old seeds. */
+    public enum Stream {
+        ROOMS(0x524f4f4dL),
+        HALLWAYS(0x48414c4cL),
+        CONNECTORS(0x434f4e4eL),
+        ELEVATOR(0x454c4556L),
+        NPC_SPAWN(0x4e535057L),
+        NPC(0x4e504321L),
+        LOOT(0x4c4f4f54L),
+        CHUNK(0x43484e4bL);
+
+        private final long salt;
+
+        Stream(long salt) {
+            this.salt = salt;
+        }
+    }
+
+    private final long seed;
+
+    public RngService(long seed) {
+        this.seed = seed;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /** Fresh generator for a whole phase (rooms, hallways, loot...). */
+    public SplitMixRandom stream(Stream stream) {
+        return new SplitMixRandom(derive(stream, 0L, 0L));
+    }
+
+    /** Per-NPC stream keyed by the NPC's spawn index. */
+    public SplitMixRandom npc(int npcId) {
+        return new SplitMixRandom(derive(Stream.NPC, npcId, 0L));
+    }
+
+    /** Per-chunk stream for a phase, so chunks can be generated in any order (or in parallel). */
+    public SplitMixRandom chunk(Stream phase, int chunkX, int chunkY) {
+        long phaseKey = derive(phase, 0L, 0L);
+        return new SplitMixRandom(derive(Stream.CHUNK, phaseKey ^ chunkX, chunkY));
+    }
+
+    private long derive(Stream stream, long keyA, long keyB) {
+        long h = SplitMixRandom.mix64(seed ^ stream.salt);
+        h = SplitMixRandom.mix64(h + keyA * GOLDEN_GAMMA);
+        h = SplitMixRandom.mix64(h + keyB * GOLDEN_GAMMA);
+        return h;
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import java.util.Random;
+
+/**
+ * Counter-based generator (SplitMix64) that still plugs into anything expecting a
+ * {@link Random} - RandomUtils, Collections.shuffle, TETile.colorVariant, etc.
+ *
+ * The whole generator state is a single long that advances by a fixed gamma per draw,
+ * so it can be read back and restored exactly (plain Random hides its seed). Saves and
+ * replays rely on that to resume a stream at the same point.
+ */
+public class SplitMixRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public SplitMixRandom(long seed) {
+        super(seed); // Random(long) routes through setSeed for subclasses
+    }
+
+    /**
+     * SplitMix64 finalizer. Good enough avalanche that neighbouring inputs
+     * (seed, seed + 1, ...) produce unrelated outputs.
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /** Current counter value; pass it to {@link #setState} to resume this exact stream. */
+    public long state() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+}
@@ -0,0 +1,55 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free hand-off of the newest value from one writer thread to one reader thread.
+ *
+ * Three slots: the writer owns one, the reader owns one, and the third is shared. Publishing
+ * swaps the writer's slot with the shared one; reading swaps the shared one with the
+ * reader's if it holds something newer. Neither side ever waits, and a slot is never
+ * written while it's being read. Slots are reused, so the writer must overwrite every
+ * field of {@link #writeSlot()} before publishing.
+ */
+public final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100; // shared slot was published and not yet read
+
+    private final T[] slots;
+    private final AtomicInteger shared = new AtomicInteger(2);
+    private int writeIndex = 0; // writer thread only
+    private int readIndex = 1;  // reader thread only
+    private boolean anyRead;    // reader thread only
+
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(Supplier<T> factory) {
+        slots = (T[]) new Object[] {factory.get(), factory.get(), factory.get()};
+    }
+
+    /** The slot the writer fills next. */
+    public T writeSlot() {
+        return slots[writeIndex];
+    }
+
+    /** Make the filled write slot the newest value and take a free slot for the next one. */
+    public void publish() {
+        int previous = shared.getAndSet(writeIndex | FRESH);
+        writeIndex = previous & INDEX_MASK;
+    }
+
+    /** Whether something was published since the reader's last {@link #latest()}. */
+    public boolean hasFresh() {
+        return (shared.get() & FRESH) != 0;
+    }
+
+    /** Newest published value, or null before the first publish. Valid until the next call. */
+    public T latest() {
+        if ((shared.get() & FRESH) != 0) {
+            int previous = shared.getAndSet(readIndex);
+            readIndex = previous & INDEX_MASK;
+            anyRead = true;
+        }
+        return anyRead ? slots[readIndex] : null;
+    }
+}